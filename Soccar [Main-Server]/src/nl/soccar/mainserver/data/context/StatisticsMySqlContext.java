@@ -1,17 +1,22 @@
 package nl.soccar.mainserver.data.context;
 
-import java.sql.CallableStatement;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import nl.soccar.mainserver.util.DatabaseUtilities;
 import nl.soccar.library.Statistics;
 import nl.soccar.mainserver.data.contract.IStatisticsDataContract;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
 
 /**
  * Class that implements all methods prescribed in the IStatisticsDataContract
@@ -23,55 +28,98 @@ public class StatisticsMySqlContext implements IStatisticsDataContract {
 
     private static final Logger LOGGER = Logger.getLogger(StatisticsMySqlContext.class.getSimpleName());
 
+    private static final String ADD_STATISTICS = "UPDATE Statistics s JOIN User u ON u.id = s.user_id SET s.goals = s.goals + ?, s.assists = s.assists + ?, s.games_won = s.games_won + ?, s.games_lost = s.games_lost + ?, s.games_played = s.games_played + ? WHERE u.username = ?";
+    private static final String ADD_EVENT = "INSERT IGNORE INTO StatisticsEvent (event_id) VALUES (?)";
+    private static final String SELECT_STATISTICS = "SELECT u.username, s.goals, s.assists, s.games_won, s.games_lost, s.games_played FROM User u JOIN Statistics s ON u.id = s.user_id";
+
+    // The IN list of a bulk lookup is padded to one of these sizes, so the statement cache only holds one statement per size instead of one per amount of usernames.
+    private static final int[] IN_LIST_SIZES = {8, 16, 32, 64};
+
     @Override
-    public void addGoals(String username, int goals) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call add_goals(?, ?)}")) {
-            cs.setString(1, username);
-            cs.setInt(2, goals);
-            cs.execute();
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while adding goals to a statistics record in the database.", e);
+    public boolean addStatistics(Collection<StatisticsDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return true;
         }
-    }
 
-    @Override
-    public void addAssists(String username, int assists) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call add_assists(?, ?)}")) {
-            cs.setString(1, username);
-            cs.setInt(2, assists);
-            cs.execute();
+        try (Connection connection = DatabaseUtilities.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                addDeltas(connection, deltas);
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while adding assists to a statistics record in the database.", e);
+            LOGGER.log(Level.WARNING, "An error occurred while adding a batch of statistics to the database.", e);
         }
+
+        return false;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The ids of written events are kept in the StatisticsEvent table, whose
+     * event_id column is its primary key. Recording an id that already exists
+     * is ignored by the database, which tells this method the event is a
+     * duplicate without a separate query.
+     */
     @Override
-    public void incrementGamesWon(String username) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call increment_games_won(?)}")) {
-            cs.setString(1, username);
-            cs.execute();
+    public EventWriteResult addStatistics(String eventId, Collection<StatisticsDelta> deltas) {
+        try (Connection connection = DatabaseUtilities.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement ps = connection.prepareStatement(ADD_EVENT)) {
+                ps.setString(1, eventId);
+
+                if (ps.executeUpdate() == 0) {
+                    connection.rollback();
+                    LOGGER.log(Level.FINE, "Statistics event {0} has already been written and is ignored.", eventId);
+                    return EventWriteResult.DUPLICATE;
+                }
+
+                addDeltas(connection, deltas);
+                connection.commit();
+                return EventWriteResult.WRITTEN;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while incrementing the amount of games won in a statistics record in the database.", e);
+            LOGGER.log(Level.WARNING, "An error occurred while adding the statistics of an event to the database.", e);
         }
+
+        return EventWriteResult.FAILED;
     }
 
-    @Override
-    public void incrementGamesLost(String username) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call increment_games_lost(?)}")) {
-            cs.setString(1, username);
-            cs.execute();
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while incrementing the amount of games lost in a statistics record in the database.", e);
+    /**
+     * Adds the given deltas as one batch on a connection whose transaction is
+     * managed by the caller.
+     *
+     * @param connection The connection on which the deltas are written.
+     * @param deltas The changes to the statistics of one or more players.
+     * @throws SQLException Thrown when the deltas could not be written.
+     */
+    private static void addDeltas(Connection connection, Collection<StatisticsDelta> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
         }
-    }
 
-    @Override
-    public void incrementGamesPlayed(String username) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call increment_games_played(?)}")) {
-            cs.setString(1, username);
-            cs.execute();
-        } catch (SQLException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while incrementing the amount of games played in a statistics record in the database.", e);
+        try (PreparedStatement ps = connection.prepareStatement(ADD_STATISTICS)) {
+            for (StatisticsDelta delta : deltas) {
+                ps.setInt(1, delta.getGoals());
+                ps.setInt(2, delta.getAssists());
+                ps.setInt(3, delta.getGamesWon());
+                ps.setInt(4, delta.getGamesLost());
+                ps.setInt(5, delta.getGamesPlayed());
+                ps.setString(6, delta.getUsername());
+                ps.addBatch();
+            }
+
+            ps.executeBatch();
         }
     }
 
@@ -79,18 +127,13 @@ public class StatisticsMySqlContext implements IStatisticsDataContract {
     public Statistics getStatistics(String username) {
         Statistics statistics = null;
 
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{? = call get_user_id(?)}")) {
-            cs.registerOutParameter(1, Types.INTEGER);
-            cs.setString(2, username);
-            cs.execute();
-            int userId = cs.getInt(1);
-
-            try (PreparedStatement ps = DatabaseUtilities.prepareStatement("SELECT * FROM Statistics WHERE user_id = ?")) {
-                ps.setInt(1, userId);
-                ResultSet rs = ps.executeQuery();
+        try (Connection connection = DatabaseUtilities.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT_STATISTICS + " WHERE u.username = ?")) {
+            ps.setString(1, username);
 
+            try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    statistics = new Statistics(username, rs.getInt("goals"), rs.getInt("assists"), rs.getInt("games_won"), rs.getInt("games_lost"), rs.getInt("games_played"));
+                    statistics = toStatistics(rs);
                 }
             }
         } catch (SQLException e) {
@@ -100,21 +143,78 @@ public class StatisticsMySqlContext implements IStatisticsDataContract {
         return statistics;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * The usernames are queried in chunks of at most the largest IN list size.
+     * The IN list of every chunk is padded to the nearest IN list size by
+     * repeating its last username, which does not change the result.
+     */
+    @Override
+    public List<Statistics> getStatistics(Collection<String> usernames) {
+        List<Statistics> statistics = new ArrayList<>();
+        if (usernames.isEmpty()) {
+            return statistics;
+        }
+
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(usernames));
+        int maxSize = IN_LIST_SIZES[IN_LIST_SIZES.length - 1];
+
+        try (Connection connection = DatabaseUtilities.getConnection()) {
+            for (int from = 0; from < distinct.size(); from += maxSize) {
+                List<String> chunk = distinct.subList(from, Math.min(from + maxSize, distinct.size()));
+                int size = Arrays.stream(IN_LIST_SIZES).filter(s -> s >= chunk.size()).findFirst().getAsInt();
+                String placeholders = String.join(", ", Collections.nCopies(size, "?"));
+
+                try (PreparedStatement ps = connection.prepareStatement(SELECT_STATISTICS + " WHERE u.username IN (" + placeholders + ")")) {
+                    for (int i = 0; i < size; i++) {
+                        ps.setString(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            statistics.add(toStatistics(rs));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "An error occurred while retrieving the statistics of multiple players from the database.", e);
+            return null;
+        }
+
+        return statistics;
+    }
+
     @Override
     public List<Statistics> getAllStatistics() {
         List<Statistics> statistics = new ArrayList<>();
 
-        try (PreparedStatement ps = DatabaseUtilities.prepareStatement("SELECT u.username, s.goals, s.assists, s.games_won, s.games_lost, s.games_played FROM User u, Statistics s WHERE u.id = s.user_id;")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                PreparedStatement ps = connection.prepareStatement(SELECT_STATISTICS)) {
             try (ResultSet rs = ps.executeQuery()) {
                 while (rs.next()) {
-                    statistics.add(new Statistics(rs.getString("username"), rs.getInt("goals"), rs.getInt("assists"), rs.getInt("games_won"), rs.getInt("games_lost"), rs.getInt("games_played")));
+                    statistics.add(toStatistics(rs));
                 }
             }
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "An error occurred while retrieving all statistics from the database.", e);
+            return null;
         }
 
         return statistics;
     }
 
+    /**
+     * Creates statistics from the current row of a result set that contains
+     * the columns of SELECT_STATISTICS.
+     *
+     * @param rs The result set positioned on a row.
+     * @return The statistics of the row.
+     * @throws SQLException Thrown when a column could not be read.
+     */
+    private static Statistics toStatistics(ResultSet rs) throws SQLException {
+        return new Statistics(rs.getString("username"), rs.getInt("goals"), rs.getInt("assists"), rs.getInt("games_won"), rs.getInt("games_lost"), rs.getInt("games_played"));
+    }
+
 }
@@ -1,6 +1,7 @@
 package nl.soccar.mainserver.data.context;
 
 import java.sql.CallableStatement;
+import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -28,7 +29,8 @@ public class UserMySqlContext implements IUserDataContract {
         byte[] salt = PasswordUtilities.generateSalt();
         byte[] hash = PasswordUtilities.addSalt(password, salt);
 
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call add_user(?, ?, ?)}")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                CallableStatement cs = connection.prepareCall("{call add_user(?, ?, ?)}")) {
             cs.setString(1, username);
             cs.setBytes(2, hash);
             cs.setBytes(3, salt);
@@ -43,7 +45,8 @@ public class UserMySqlContext implements IUserDataContract {
 
     @Override
     public void changePrivilege(String username, Privilege privilege) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{call change_privilege(?, ?)}")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                CallableStatement cs = connection.prepareCall("{call change_privilege(?, ?)}")) {
             cs.setString(1, username);
             cs.setString(2, privilege.name());
             cs.execute();
@@ -54,7 +57,8 @@ public class UserMySqlContext implements IUserDataContract {
 
     @Override
     public boolean checkIfExists(String username) {
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{? = call check_user_exists(?)}")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                CallableStatement cs = connection.prepareCall("{? = call check_user_exists(?)}")) {
             cs.registerOutParameter(1, Types.BOOLEAN);
             cs.setString(2, username);
             cs.execute();
@@ -71,7 +75,8 @@ public class UserMySqlContext implements IUserDataContract {
         byte[] storedHash = new byte[64];
         byte[] salt = new byte[16];
 
-        try (PreparedStatement ps = DatabaseUtilities.prepareStatement("SELECT password, password_salt FROM User WHERE username = ?")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                PreparedStatement ps = connection.prepareStatement("SELECT password, password_salt FROM User WHERE username = ?")) {
             ps.setString(1, username);
 
             try (ResultSet rs = ps.executeQuery()) {
@@ -92,7 +97,8 @@ public class UserMySqlContext implements IUserDataContract {
     public Privilege getPrivilege(String username) {
         Privilege privilege = Privilege.GUEST;
 
-        try (CallableStatement cs = DatabaseUtilities.prepareCall("{? = call get_privilege(?)}")) {
+        try (Connection connection = DatabaseUtilities.getConnection();
+                CallableStatement cs = connection.prepareCall("{? = call get_privilege(?)}")) {
             cs.registerOutParameter(1, Types.VARCHAR);
             cs.setString(2, username);
             cs.execute();
@@ -1,7 +1,10 @@
 package nl.soccar.mainserver.data.contract;
 
+import java.util.Collection;
 import java.util.List;
 import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
 
 /**
  * Interface that describes the required methods for manipulation of statistics
@@ -12,51 +15,27 @@ import nl.soccar.library.Statistics;
 public interface IStatisticsDataContract {
 
     /**
-     * Adds a given amount of goals to the given player stored in the
-     * persistency service.
+     * Adds the given statistics deltas to the players stored in the
+     * persistency service. All deltas are written in a single transaction.
      *
-     * @param username The username of the player whose amount of goals needs to
-     * be increased.
-     * @param goals The amount of goals that need to be added to the player.
+     * @param deltas The changes to the statistics of one or more players.
+     * @return True if all deltas were written, false if none were written.
      */
-    void addGoals(String username, int goals);
+    boolean addStatistics(Collection<StatisticsDelta> deltas);
 
     /**
-     * Adds a given amount of assists to the given player stored in the
-     * persistency service.
+     * Adds the given statistics deltas to the players stored in the
+     * persistency service, unless an event with the same id has been written
+     * before. The id of the event is recorded in the same transaction as the
+     * deltas, so an event that is retried is never counted twice.
      *
-     * @param username The username of the player whose amount of assists needs
-     * to be increased.
-     * @param assists The amount of assists that need to be added to the player.
+     * @param eventId The unique id of the event (for example a match) that
+     * caused the deltas.
+     * @param deltas The changes to the statistics of one or more players.
+     * @return WRITTEN if the deltas were written now, DUPLICATE if the event
+     * was written before, or FAILED if none were written.
      */
-    void addAssists(String username, int assists);
-
-    /**
-     * Increments the amount of games won by a player stored in the persistency
-     * service.
-     *
-     * @param username The username of the player whose amount of won games
-     * needs to be incremented.
-     */
-    void incrementGamesWon(String username);
-
-    /**
-     * Increments the amount of games lost by a player stored in the persistency
-     * service.
-     *
-     * @param username The username of the player whose amount of lost games
-     * needs to be incremented.
-     */
-    void incrementGamesLost(String username);
-
-    /**
-     * Increments the amount of games played by a player stored in the
-     * persistency service.
-     *
-     * @param username The username of the player whose amount of played games
-     * needs to be incremented.
-     */
-    void incrementGamesPlayed(String username);
+    EventWriteResult addStatistics(String eventId, Collection<StatisticsDelta> deltas);
 
     /**
      * Gets the game statistics of a player stored in the persistency service.
@@ -67,10 +46,22 @@ public interface IStatisticsDataContract {
      */
     Statistics getStatistics(String username);
 
+    /**
+     * Gets the game statistics of multiple players stored in the persistency
+     * service in a single query.
+     *
+     * @param usernames The usernames of the players whose statistics need to
+     * be retrieved from the persistency service.
+     * @return The statistics of the players that were found, or null if they
+     * could not be retrieved.
+     */
+    List<Statistics> getStatistics(Collection<String> usernames);
+
     /**
      * Gets the game statistics of all user from the persistency service.
      *
-     * @return A collection of all game statistics.
+     * @return A collection of all game statistics, or null if they could not
+     * be retrieved.
      */
     List<Statistics> getAllStatistics();
 
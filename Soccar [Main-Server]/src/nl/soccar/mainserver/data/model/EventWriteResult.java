@@ -0,0 +1,24 @@
+package nl.soccar.mainserver.data.model;
+
+/**
+ * The outcomes of writing the statistics of an event with a unique id to the
+ * persistency service.
+ *
+ * @author PTS34A
+ */
+public enum EventWriteResult {
+
+    /**
+     * The event was new and its statistics have been written.
+     */
+    WRITTEN,
+    /**
+     * The event had been written before, so its statistics were ignored.
+     */
+    DUPLICATE,
+    /**
+     * The statistics of the event could not be written.
+     */
+    FAILED;
+
+}
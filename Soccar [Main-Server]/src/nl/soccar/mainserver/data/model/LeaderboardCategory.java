@@ -0,0 +1,40 @@
+package nl.soccar.mainserver.data.model;
+
+import java.util.function.ToDoubleFunction;
+import nl.soccar.library.Statistics;
+
+/**
+ * The categories by which players can be ranked on the leaderboard. Players
+ * with a higher score are ranked higher.
+ *
+ * Clients pass a category to the leaderboard calls, so LeaderboardCategory and
+ * LeaderboardEntry have to move to the Soccar library before the leaderboard
+ * can be requested remotely. Until then they are only used within the Main
+ * server.
+ *
+ * @author PTS34A
+ */
+public enum LeaderboardCategory {
+
+    GOALS(Statistics::getGoals),
+    ASSISTS(Statistics::getAssists),
+    WINS(Statistics::getGamesWon),
+    WIN_RATIO(s -> s.getGamesPlayed() == 0 ? 0 : s.getGamesWon() / (double) s.getGamesPlayed());
+
+    private final transient ToDoubleFunction<Statistics> score;
+
+    LeaderboardCategory(ToDoubleFunction<Statistics> score) {
+        this.score = score;
+    }
+
+    /**
+     * Gets the score of a player in this category.
+     *
+     * @param statistics The statistics of the player.
+     * @return The score of the player.
+     */
+    public double getScore(Statistics statistics) {
+        return score.applyAsDouble(statistics);
+    }
+
+}
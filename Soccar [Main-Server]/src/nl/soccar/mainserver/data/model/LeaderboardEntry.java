@@ -0,0 +1,70 @@
+package nl.soccar.mainserver.data.model;
+
+import java.io.Serializable;
+import nl.soccar.library.Statistics;
+
+/**
+ * A LeaderboardEntry is the position of a single player on the leaderboard of
+ * a category. Like LeaderboardCategory, it is only used within the Main
+ * server until it is moved to the Soccar library.
+ *
+ * @author PTS34A
+ */
+public final class LeaderboardEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int rank;
+    private final double score;
+    private final Statistics statistics;
+
+    /**
+     * Constructor used for instantiation of a LeaderboardEntry object.
+     *
+     * @param rank The one-based rank of the player.
+     * @param score The score of the player in the category.
+     * @param statistics The statistics of the player.
+     */
+    public LeaderboardEntry(int rank, double score, Statistics statistics) {
+        this.rank = rank;
+        this.score = score;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Gets the rank of the player, where 1 is the best player.
+     *
+     * @return The one-based rank.
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    /**
+     * Gets the score of the player in the category of the leaderboard.
+     *
+     * @return The score.
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the username of the player.
+     *
+     * @return The username.
+     */
+    public String getUsername() {
+        return statistics.getUsername();
+    }
+
+    /**
+     * Gets the statistics of the player.
+     *
+     * @return The statistics.
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+}
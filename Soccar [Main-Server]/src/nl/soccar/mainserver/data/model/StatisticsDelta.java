@@ -0,0 +1,161 @@
+package nl.soccar.mainserver.data.model;
+
+import nl.soccar.library.Statistics;
+
+/**
+ * A StatisticsDelta holds the changes to the statistics of a single player
+ * that have not been written to the persistency service yet. Multiple updates
+ * for the same player are coalesced into one delta.
+ *
+ * @author PTS34A
+ */
+public class StatisticsDelta {
+
+    private final String username;
+
+    private int goals;
+    private int assists;
+    private int gamesWon;
+    private int gamesLost;
+    private int gamesPlayed;
+
+    /**
+     * Constructor used for instantiation of an empty StatisticsDelta object.
+     *
+     * @param username The username of the player whose statistics change.
+     */
+    public StatisticsDelta(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Constructor used for instantiation of a StatisticsDelta object that
+     * holds the values of the given statistics as changes, for example the
+     * statistics a player gathered during a single match.
+     *
+     * @param statistics The statistics whose values are the changes.
+     */
+    public StatisticsDelta(Statistics statistics) {
+        this(statistics.getUsername());
+
+        goals = statistics.getGoals();
+        assists = statistics.getAssists();
+        gamesWon = statistics.getGamesWon();
+        gamesLost = statistics.getGamesLost();
+        gamesPlayed = statistics.getGamesPlayed();
+    }
+
+    /**
+     * Adds a given amount of goals to this delta.
+     *
+     * @param goals The amount of goals that need to be added.
+     */
+    public void addGoals(int goals) {
+        this.goals += goals;
+    }
+
+    /**
+     * Adds a given amount of assists to this delta.
+     *
+     * @param assists The amount of assists that need to be added.
+     */
+    public void addAssists(int assists) {
+        this.assists += assists;
+    }
+
+    /**
+     * Increments the amount of games won in this delta.
+     */
+    public void incrementGamesWon() {
+        gamesWon++;
+    }
+
+    /**
+     * Increments the amount of games lost in this delta.
+     */
+    public void incrementGamesLost() {
+        gamesLost++;
+    }
+
+    /**
+     * Increments the amount of games played in this delta.
+     */
+    public void incrementGamesPlayed() {
+        gamesPlayed++;
+    }
+
+    /**
+     * Adds all changes of the given delta to this delta.
+     *
+     * @param other The delta whose changes need to be added.
+     * @return This delta.
+     */
+    public StatisticsDelta merge(StatisticsDelta other) {
+        goals += other.goals;
+        assists += other.assists;
+        gamesWon += other.gamesWon;
+        gamesLost += other.gamesLost;
+        gamesPlayed += other.gamesPlayed;
+        return this;
+    }
+
+    /**
+     * Creates a delta that undoes the changes of this delta.
+     *
+     * @return A new delta with the opposite changes.
+     */
+    public StatisticsDelta negate() {
+        StatisticsDelta negated = new StatisticsDelta(username);
+        negated.goals = -goals;
+        negated.assists = -assists;
+        negated.gamesWon = -gamesWon;
+        negated.gamesLost = -gamesLost;
+        negated.gamesPlayed = -gamesPlayed;
+        return negated;
+    }
+
+    /**
+     * Applies the changes of this delta to the given statistics.
+     *
+     * @param statistics The statistics the changes are applied to.
+     * @return New statistics that include the changes of this delta.
+     */
+    public Statistics applyTo(Statistics statistics) {
+        return new Statistics(statistics.getUsername(), statistics.getGoals() + goals, statistics.getAssists() + assists,
+                statistics.getGamesWon() + gamesWon, statistics.getGamesLost() + gamesLost, statistics.getGamesPlayed() + gamesPlayed);
+    }
+
+    /**
+     * Checks if this delta contains any changes.
+     *
+     * @return True if none of the statistics change.
+     */
+    public boolean isEmpty() {
+        return goals == 0 && assists == 0 && gamesWon == 0 && gamesLost == 0 && gamesPlayed == 0;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public int getGoals() {
+        return goals;
+    }
+
+    public int getAssists() {
+        return assists;
+    }
+
+    public int getGamesWon() {
+        return gamesWon;
+    }
+
+    public int getGamesLost() {
+        return gamesLost;
+    }
+
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+}
@@ -0,0 +1,24 @@
+package nl.soccar.mainserver.data.repository;
+
+/**
+ * Enumeration of the ways a data repository can run its queries.
+ *
+ * @author PTS34A
+ */
+public enum ExecutionMode {
+
+    /**
+     * Queries run on a bounded pool of platform threads. Queries that do not
+     * fit in the queue of the pool are rejected.
+     */
+    POOLED,
+
+    /**
+     * Every query runs on its own virtual thread. The amount of queries that
+     * access the database at the same time is limited to the size of the
+     * database connection pool. Requires a Java 21 runtime; on older runtimes
+     * the repository falls back to POOLED.
+     */
+    VIRTUAL_THREADS
+
+}
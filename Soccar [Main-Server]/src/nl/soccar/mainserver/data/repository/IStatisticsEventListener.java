@@ -0,0 +1,28 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.Collection;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+
+/**
+ * Callback that is notified when a StatisticsWriteBuffer is done with a
+ * buffered event, because only then it is known whether the persistency
+ * service counted the event.
+ *
+ * @author PTS34A
+ */
+public interface IStatisticsEventListener {
+
+    /**
+     * Notifies the listener that a buffered event left the buffer. The result
+     * is WRITTEN if the event was new, or DUPLICATE if the persistency service
+     * had written it before. Events that could not be written stay in the
+     * buffer, so the listener is not notified of them.
+     *
+     * @param eventId The unique id of the event.
+     * @param deltas The changes to the statistics of one or more players.
+     * @param result The outcome of writing the event.
+     */
+    void eventFlushed(String eventId, Collection<StatisticsDelta> deltas, EventWriteResult result);
+
+}
@@ -0,0 +1,207 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.model.LeaderboardCategory;
+import nl.soccar.mainserver.data.model.LeaderboardEntry;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+import nl.soccar.mainserver.util.RankedSet;
+
+/**
+ * A Leaderboard keeps all players ranked in every leaderboard category. The
+ * rankings are loaded from the persistency service and then kept up to date
+ * with the statistics updates the StatisticsRepository receives, so the best
+ * players and the rank of a player can be found without reading or sorting all
+ * statistics.
+ *
+ * Only players that are loaded or added when their account is created are
+ * ranked; updates of other usernames are ignored, so an update for a username
+ * that does not exist cannot put it on the leaderboard.
+ *
+ * Players with the same score are ranked by username. Reads can run at the
+ * same time; an update blocks reads only while it moves a player in the
+ * rankings.
+ *
+ * @author PTS34A
+ */
+public class Leaderboard {
+
+    private final Map<String, Statistics> players;
+    private final Map<LeaderboardCategory, RankedSet<Statistics>> rankings;
+    private final ReadWriteLock lock;
+
+    /**
+     * Constructor used for instantiation of an empty Leaderboard object.
+     */
+    public Leaderboard() {
+        players = new HashMap<>();
+        rankings = new EnumMap<>(LeaderboardCategory.class);
+        lock = new ReentrantReadWriteLock();
+
+        for (LeaderboardCategory category : LeaderboardCategory.values()) {
+            Comparator<Statistics> byScore = Comparator.comparingDouble(category::getScore);
+            rankings.put(category, new RankedSet<>(byScore.reversed().thenComparing(Statistics::getUsername)));
+        }
+    }
+
+    /**
+     * Replaces all players on the leaderboard with the given statistics.
+     *
+     * @param statistics The statistics of all players.
+     */
+    public void load(Collection<Statistics> statistics) {
+        lock.writeLock().lock();
+        try {
+            players.clear();
+            rankings.values().forEach(RankedSet::clear);
+            statistics.forEach(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a new player without any statistics, unless the player is already
+     * on the leaderboard.
+     *
+     * @param username The username of the player.
+     */
+    public void add(String username) {
+        lock.writeLock().lock();
+        try {
+            if (!players.containsKey(username)) {
+                put(new Statistics(username, 0, 0, 0, 0, 0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a statistics update to a player and moves the player to its new
+     * rank in every category. An update of a player that is not on the
+     * leaderboard is ignored.
+     *
+     * @param delta The changes to the statistics of the player.
+     */
+    public void apply(StatisticsDelta delta) {
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Statistics current = players.get(delta.getUsername());
+            if (current != null) {
+                put(delta.applyTo(current));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the best players in a category.
+     *
+     * @param category The category by which the players are ranked.
+     * @param count The maximum amount of players that are returned.
+     * @return The best players, best first.
+     */
+    public List<LeaderboardEntry> getTop(LeaderboardCategory category, int count) {
+        lock.readLock().lock();
+        try {
+            return entries(category, 0, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the rank of a player in a category, together with the players that
+     * are ranked just above and below the player.
+     *
+     * @param category The category by which the players are ranked.
+     * @param username The username of the player.
+     * @param neighbours The maximum amount of players above and below the
+     * player that are returned.
+     * @return The player and its neighbours, best first, or an empty list if
+     * the player is not on the leaderboard.
+     */
+    public List<LeaderboardEntry> getNeighbours(LeaderboardCategory category, String username, int neighbours) {
+        lock.readLock().lock();
+        try {
+            Statistics statistics = players.get(username);
+            if (statistics == null) {
+                return Collections.emptyList();
+            }
+
+            int rank = rankings.get(category).rank(statistics);
+            return entries(category, rank - neighbours, rank + neighbours + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the amount of players on the leaderboard.
+     *
+     * @return The amount of players.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return players.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the statistics of a player in every ranking. Must be called
+     * while holding the write lock.
+     *
+     * @param statistics The new statistics of the player.
+     */
+    private void put(Statistics statistics) {
+        Statistics previous = players.put(statistics.getUsername(), statistics);
+
+        rankings.values().forEach(ranking -> {
+            if (previous != null) {
+                ranking.remove(previous);
+            }
+            ranking.add(statistics);
+        });
+    }
+
+    /**
+     * Creates the entries of the players with a rank in the given range. Must
+     * be called while holding the read lock.
+     *
+     * @param category The category by which the players are ranked.
+     * @param from The zero-based rank of the first player, inclusive.
+     * @param to The zero-based rank of the last player, exclusive.
+     * @return The entries, best first.
+     */
+    private List<LeaderboardEntry> entries(LeaderboardCategory category, int from, int to) {
+        int start = Math.max(0, from);
+        List<Statistics> ranked = rankings.get(category).range(start, to);
+
+        List<LeaderboardEntry> entries = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Statistics statistics = ranked.get(i);
+            entries.add(new LeaderboardEntry(start + i + 1, category.getScore(statistics), statistics));
+        }
+
+        return entries;
+    }
+
+}
@@ -1,14 +1,35 @@
 package nl.soccar.mainserver.data.repository;
 
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import nl.soccar.mainserver.util.BoundedThreadPool;
+import nl.soccar.mainserver.util.ConnectionPool;
+import nl.soccar.mainserver.util.DatabaseUtilities;
 
 /**
  * Astract class that serves as base for all data repositories. It provides a
- * cached thread pool that is used to prevent blocking the main thread with
- * database query's.
+ * bounded thread pool that is used to prevent blocking the main thread with
+ * database query's. Queries are submitted as CompletableFutures that fail when
+ * they do not complete within the configured timeout. When the queue of the
+ * pool is full, new queries fail immediately with a
+ * RejectedExecutionException.
+ *
+ * In the VIRTUAL_THREADS execution mode every query runs on its own virtual
+ * thread instead, and a semaphore that is shared by all repositories limits
+ * the amount of queries that use the database at the same time to the size of
+ * the database connection pool.
  *
  * @author PTS34A
  */
@@ -16,32 +37,274 @@ public abstract class Repository {
 
     private static final Logger LOGGER = Logger.getLogger(Repository.class.getSimpleName());
 
+    private static final long DEFAULT_TIMEOUT = 10000; // in milliseconds
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int DEFAULT_QUEUE_CAPACITY = 100;
+    private static final long DRAIN_TIMEOUT = 30; // in seconds
+
+    private static final ScheduledExecutorService TIMEOUT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "Repository-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static Semaphore databasePermits;
+
     private final ExecutorService pool;
+    private final Semaphore permits;
+    private volatile long timeout;
 
     /**
      * Constructor that serves as base for all data repositories. It creates a
-     * cached thread pool.
+     * bounded thread pool with the default size and queue capacity.
      */
     public Repository() {
-        pool = Executors.newCachedThreadPool();
-        LOGGER.log(Level.INFO, "Threadpool {0} initialized.", getClass().getSimpleName());
+        this(ExecutionMode.POOLED);
+    }
+
+    /**
+     * Constructor that serves as base for all data repositories. It creates a
+     * bounded thread pool with the default size and queue capacity, or a
+     * virtual thread per task executor.
+     *
+     * @param mode The way this repository runs its queries.
+     */
+    public Repository(ExecutionMode mode) {
+        this(mode, DEFAULT_POOL_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * Constructor that serves as base for all data repositories. It creates a
+     * bounded thread pool, or a virtual thread per task executor.
+     *
+     * @param mode The way this repository runs its queries.
+     * @param poolSize The maximum amount of queries that run at the same time
+     * in the POOLED execution mode.
+     * @param queueCapacity The maximum amount of queries that wait for a
+     * thread before new queries are rejected in the POOLED execution mode.
+     */
+    public Repository(ExecutionMode mode, int poolSize, int queueCapacity) {
+        ExecutorService virtualThreadExecutor = mode == ExecutionMode.VIRTUAL_THREADS ? newVirtualThreadExecutor() : null;
+
+        if (virtualThreadExecutor != null) {
+            pool = virtualThreadExecutor;
+            permits = getDatabasePermits();
+            LOGGER.log(Level.INFO, "Virtual thread executor {0} initialized.", getClass().getSimpleName());
+        } else {
+            if (mode == ExecutionMode.VIRTUAL_THREADS) {
+                LOGGER.log(Level.WARNING, "Virtual threads are not supported by this Java runtime, {0} falls back to a thread pool.", getClass().getSimpleName());
+            }
+
+            pool = new BoundedThreadPool(getClass().getSimpleName(), poolSize, queueCapacity);
+            permits = null;
+            LOGGER.log(Level.INFO, "Threadpool {0} initialized.", getClass().getSimpleName());
+        }
+
+        timeout = DEFAULT_TIMEOUT;
     }
 
     /**
-     * Shuts the cached thread pool down.
+     * Shuts the thread pool down after the queued queries have been run. If
+     * the queries do not finish within the drain timeout, they are
+     * interrupted.
      */
     public void close() {
         pool.shutdown();
-        LOGGER.log(Level.INFO, "Threadpool {0} shut down.", getClass().getSimpleName());
+
+        try {
+            if (!pool.awaitTermination(DRAIN_TIMEOUT, TimeUnit.SECONDS)) {
+                LOGGER.log(Level.WARNING, "Threadpool {0} did not drain in time, {1} queued tasks are dropped.", new Object[]{getClass().getSimpleName(), pool.shutdownNow().size()});
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        LOGGER.log(Level.INFO, "Threadpool {0} shut down: {1}", new Object[]{getClass().getSimpleName(), pool});
     }
 
     /**
-     * Gets the cached thread pool.
+     * Gets the executor that runs the queries of this repository. In the
+     * POOLED execution mode this is a BoundedThreadPool, that also provides the
+     * queue depth and task latency of this repository.
      *
-     * @return The cached thread pool.
+     * @return The executor of this repository.
      */
     public ExecutorService getPool() {
         return pool;
     }
 
+    /**
+     * Gets the execution mode this repository actually runs in.
+     *
+     * @return VIRTUAL_THREADS if queries run on virtual threads, otherwise
+     * POOLED.
+     */
+    public ExecutionMode getExecutionMode() {
+        return permits != null ? ExecutionMode.VIRTUAL_THREADS : ExecutionMode.POOLED;
+    }
+
+    /**
+     * Runs the given task on the executor of this repository. In the
+     * VIRTUAL_THREADS execution mode the task waits for a database permit
+     * before it runs; if it is interrupted while waiting, the task is not run
+     * and a warning is logged.
+     *
+     * @param task The task that needs to be run.
+     * @throws RejectedExecutionException Thrown when the executor is saturated
+     * or shut down.
+     */
+    protected void execute(Runnable task) {
+        execute(task, () -> LOGGER.log(Level.WARNING, "A task of {0} was interrupted while waiting for a database permit and is not run.", getClass().getSimpleName()));
+    }
+
+    /**
+     * Runs the given task on the executor of this repository. In the
+     * VIRTUAL_THREADS execution mode the task waits for a database permit
+     * before it runs; if it is interrupted while waiting, the fallback is run
+     * instead of the task.
+     *
+     * @param task The task that needs to be run.
+     * @param fallback The task that is run if the task itself cannot be run.
+     * @throws RejectedExecutionException Thrown when the executor is saturated
+     * or shut down.
+     */
+    protected void execute(Runnable task, Runnable fallback) {
+        if (permits == null) {
+            pool.execute(task);
+            return;
+        }
+
+        pool.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fallback.run();
+                return;
+            }
+
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    /**
+     * Gets the time after which a query that has not completed fails.
+     *
+     * @return The timeout in milliseconds.
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the time after which a query that has not completed fails.
+     *
+     * @param timeout The timeout in milliseconds.
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * Runs the given query on the thread pool. The returned future completes
+     * with a TimeoutException if the query does not complete within the
+     * timeout, with a RejectedExecutionException if the pool is saturated, or
+     * with a CancellationException if it is interrupted while waiting for a
+     * database permit.
+     *
+     * @param <T> The type of the result of the query.
+     * @param query The query that needs to be run.
+     * @return A future that completes with the result of the query.
+     */
+    protected <T> CompletableFuture<T> supplyAsync(Supplier<T> query) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            execute(() -> {
+                try {
+                    future.complete(query.get());
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }, () -> future.completeExceptionally(new CancellationException("The query was interrupted while waiting for a database permit.")));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        long millis = timeout;
+        ScheduledFuture<?> timer = TIMEOUT_SCHEDULER.schedule(
+                () -> future.completeExceptionally(new TimeoutException(String.format("The query did not complete within %d ms.", millis))),
+                millis, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, e) -> timer.cancel(false));
+
+        return future;
+    }
+
+    /**
+     * Waits for the given future to complete, for callers that need the
+     * result synchronously. A rejected query is rethrown so the caller fails
+     * fast instead of receiving the fallback value.
+     *
+     * @param <T> The type of the result.
+     * @param future The future whose result is awaited.
+     * @param fallback The value that is returned if the future fails.
+     * @param message The message that is logged if the future fails.
+     * @return The result of the future, or the fallback value if it failed.
+     * @throws RejectedExecutionException Thrown when the thread pool is
+     * saturated.
+     */
+    protected <T> T await(CompletableFuture<T> future, T fallback, String message) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Logger.getLogger(getClass().getSimpleName()).log(Level.WARNING, message, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                throw (RejectedExecutionException) e.getCause();
+            }
+
+            Logger.getLogger(getClass().getSimpleName()).log(Level.WARNING, message, e.getCause());
+        }
+
+        return fallback;
+    }
+
+    /**
+     * Gets the semaphore that limits the amount of queries of all repositories
+     * that use the database at the same time. It is sized to the maximum size
+     * of the database connection pool.
+     *
+     * @return The shared database permits.
+     */
+    private static synchronized Semaphore getDatabasePermits() {
+        if (databasePermits == null) {
+            ConnectionPool connectionPool = DatabaseUtilities.getPool();
+            databasePermits = new Semaphore(connectionPool != null ? connectionPool.getMaxSize() : DEFAULT_POOL_SIZE, true);
+        }
+
+        return databasePermits;
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task.
+     * The executor is looked up reflectively so this class can still be built
+     * for and run on Java runtimes without virtual threads.
+     *
+     * @return The virtual thread executor, or null if the Java runtime does
+     * not support virtual threads.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
 }
@@ -1,17 +1,56 @@
 package nl.soccar.mainserver.data.repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 import nl.soccar.library.Statistics;
 import nl.soccar.mainserver.data.contract.IStatisticsDataContract;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.LeaderboardCategory;
+import nl.soccar.mainserver.data.model.LeaderboardEntry;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+import nl.soccar.mainserver.util.LoadingCache;
 
 /**
  * A StatisticsRepository object is used for manipulation of statistics data in
- * a persistence service.
+ * a persistence service. Statistics updates are coalesced per player in a
+ * StatisticsWriteBuffer and written to the persistence service in batches.
+ *
+ * Updates can carry the unique id of the event that caused them, so a game
+ * server can retry an update without the risk of counting it twice. Ids of
+ * recent events are remembered in memory to drop quick retries without a
+ * round trip, and the persistency service records the ids of all written
+ * events to drop the others. An id is only remembered once its update has
+ * been accepted, so an update that is rejected can be retried.
+ *
+ * Statistics that are read are cached. Updates are written through to the
+ * cached statistics, so the cache stays up to date without reading the
+ * persistency service again.
+ *
+ * All players are ranked on a Leaderboard that holds the statistics in the
+ * persistency service together with the buffered updates. It is loaded when
+ * the repository is created and updated with every accepted update. A
+ * buffered event that turns out to have been written before is taken off the
+ * leaderboard again and its cached statistics are invalidated. The leaderboard is reloaded periodically, through the write
+ * buffer and while no update or flush can run, and the load is retried until
+ * it succeeds if the persistency service cannot be reached when the
+ * repository is created.
  *
  * @author PTS34A
  */
@@ -19,7 +58,24 @@ public class StatisticsRepository extends Repository {
 
     private static final Logger LOGGER = Logger.getLogger(StatisticsRepository.class.getSimpleName());
 
+    private static final long FLUSH_INTERVAL = 1000; // in milliseconds
+    private static final int FLUSH_THRESHOLD = 100; // in players
+    private static final int RECENT_EVENT_IDS = 10000;
+    private static final int STATISTICS_CACHE_SIZE = 10000;
+    private static final long STATISTICS_CACHE_TTL = 60000; // in milliseconds
+    private static final int MAX_LEADERBOARD_ENTRIES = 100;
+    private static final long LEADERBOARD_RELOAD_INTERVAL = 300000; // in milliseconds
+    private static final long LEADERBOARD_RETRY_INTERVAL = 10000; // in milliseconds
+
     private final IStatisticsDataContract context;
+    private final StatisticsWriteBuffer writeBuffer;
+    private final Set<String> recentEventIds;
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final LoadingCache<String, Statistics> statisticsCache;
+    private final Leaderboard leaderboard;
+    private final ReadWriteLock leaderboardLock; // read by updates, written by reloads
+    private final ScheduledExecutorService leaderboardReloader;
+    private volatile long leaderboardLoadTime; // in milliseconds, 0 if never loaded
 
     /**
      * Constructor used for initiation of a StatisticsGameServerDataRepository
@@ -30,7 +86,46 @@ public class StatisticsRepository extends Repository {
      * communicates with.
      */
     public StatisticsRepository(IStatisticsDataContract context) {
+        this(context, ExecutionMode.POOLED);
+    }
+
+    /**
+     * Constructor used for initiation of a StatisticsGameServerDataRepository
+     * object that can be used for manipulation of statistics data in a
+     * persistence service that is passed in as argument by a Game server. The
+     * leaderboard is loaded before the constructor returns, so it is complete
+     * before the first update is received. If it cannot be loaded, the failure
+     * is logged as severe and the load is retried in the background.
+     *
+     * @param context The persistance service (context) that this repository
+     * communicates with.
+     * @param mode The way this repository runs its queries.
+     */
+    public StatisticsRepository(IStatisticsDataContract context, ExecutionMode mode) {
+        super(mode);
         this.context = context;
+
+        writeBuffer = new StatisticsWriteBuffer(context, FLUSH_INTERVAL, FLUSH_THRESHOLD);
+        writeBuffer.setEventListener(this::eventFlushed);
+        recentEventIds = Collections.newSetFromMap(new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_EVENT_IDS;
+            }
+        });
+        statisticsCache = new LoadingCache<>(STATISTICS_CACHE_SIZE, STATISTICS_CACHE_TTL);
+        leaderboard = new Leaderboard();
+        leaderboardLock = new ReentrantReadWriteLock();
+        if (!reloadLeaderboard()) {
+            LOGGER.log(Level.SEVERE, "The leaderboard could not be loaded and stays empty until a retry succeeds. The load is retried every {0} ms.", LEADERBOARD_RETRY_INTERVAL);
+        }
+
+        leaderboardReloader = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "StatisticsRepository-leaderboard");
+            t.setDaemon(true);
+            return t;
+        });
+        leaderboardReloader.scheduleWithFixedDelay(this::reloadLeaderboardIfDue, LEADERBOARD_RETRY_INTERVAL, LEADERBOARD_RETRY_INTERVAL, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -42,7 +137,7 @@ public class StatisticsRepository extends Repository {
      * @param goals The amount of goals that need to be added to the player.
      */
     public void addGoals(String username, int goals) {
-        super.getPool().execute(() -> context.addGoals(username, goals));
+        update(username, d -> d.addGoals(goals));
     }
 
     /**
@@ -54,7 +149,7 @@ public class StatisticsRepository extends Repository {
      * @param assists The amount of assists that need to be added to the player.
      */
     public void addAssists(String username, int assists) {
-        super.getPool().execute(() -> context.addAssists(username, assists));
+        update(username, d -> d.addAssists(assists));
     }
 
     /**
@@ -65,7 +160,7 @@ public class StatisticsRepository extends Repository {
      * needs to be incremented.
      */
     public void incrementGamesWon(String username) {
-        super.getPool().execute(() -> context.incrementGamesWon(username));
+        update(username, StatisticsDelta::incrementGamesWon);
     }
 
     /**
@@ -76,7 +171,7 @@ public class StatisticsRepository extends Repository {
      * needs to be incremented.
      */
     public void incrementGamesLost(String username) {
-        super.getPool().execute(() -> context.incrementGamesLost(username));
+        update(username, StatisticsDelta::incrementGamesLost);
     }
 
     /**
@@ -87,7 +182,201 @@ public class StatisticsRepository extends Repository {
      * needs to be incremented.
      */
     public void incrementGamesPlayed(String username) {
-        super.getPool().execute(() -> context.incrementGamesPlayed(username));
+        update(username, StatisticsDelta::incrementGamesPlayed);
+    }
+
+    /**
+     * Adds the statistics of all players of a finished match to the players
+     * stored in the persistency service. The statistics are written in a
+     * single transaction; if that fails or cannot be run they are handed to
+     * the write buffer so they are retried.
+     *
+     * @param roomName The name of the room in which the match was played.
+     * @param playerStatistics The statistics every player gathered during the
+     * match.
+     */
+    public void submitMatchResult(String roomName, List<Statistics> playerStatistics) {
+        List<StatisticsDelta> deltas = playerStatistics.stream().map(StatisticsDelta::new).collect(Collectors.toList());
+
+        super.execute(() -> {
+            leaderboardLock.readLock().lock();
+            try {
+                if (!context.addStatistics(deltas)) {
+                    LOGGER.log(Level.WARNING, "The match result of room {0} could not be written and is retried through the write buffer.", roomName);
+                    deltas.forEach(this::buffer);
+                } else {
+                    deltas.forEach(leaderboard::apply);
+                    deltas.forEach(delta -> statisticsCache.invalidate(delta.getUsername()));
+                }
+            } finally {
+                leaderboardLock.readLock().unlock();
+            }
+        }, () -> deltas.forEach(this::buffer));
+    }
+
+    /**
+     * Adds a given amount of goals to the given player, unless an update with
+     * the same event id has been added before.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose amount of goals needs to
+     * be increased.
+     * @param goals The amount of goals that need to be added to the player.
+     */
+    public void addGoals(String eventId, String username, int goals) {
+        addEvent(eventId, username, d -> d.addGoals(goals));
+    }
+
+    /**
+     * Adds a given amount of assists to the given player, unless an update
+     * with the same event id has been added before.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose amount of assists needs
+     * to be increased.
+     * @param assists The amount of assists that need to be added to the player.
+     */
+    public void addAssists(String eventId, String username, int assists) {
+        addEvent(eventId, username, d -> d.addAssists(assists));
+    }
+
+    /**
+     * Increments the amount of games won by a player, unless an update with
+     * the same event id has been added before.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose amount of won games
+     * needs to be incremented.
+     */
+    public void incrementGamesWon(String eventId, String username) {
+        addEvent(eventId, username, StatisticsDelta::incrementGamesWon);
+    }
+
+    /**
+     * Increments the amount of games lost by a player, unless an update with
+     * the same event id has been added before.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose amount of lost games
+     * needs to be incremented.
+     */
+    public void incrementGamesLost(String eventId, String username) {
+        addEvent(eventId, username, StatisticsDelta::incrementGamesLost);
+    }
+
+    /**
+     * Increments the amount of games played by a player, unless an update
+     * with the same event id has been added before.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose amount of played games
+     * needs to be incremented.
+     */
+    public void incrementGamesPlayed(String eventId, String username) {
+        addEvent(eventId, username, StatisticsDelta::incrementGamesPlayed);
+    }
+
+    /**
+     * Adds the statistics of all players of a finished match, unless the
+     * result of the match has been added before. The statistics are written in
+     * a single transaction together with the id of the match; if that fails
+     * or cannot be run they are handed to the write buffer so they are
+     * retried. The leaderboard and the cached statistics are only changed if
+     * the persistency service had not written the match before.
+     *
+     * @param matchId The unique id of the match.
+     * @param roomName The name of the room in which the match was played.
+     * @param playerStatistics The statistics every player gathered during the
+     * match.
+     * @throws RejectedExecutionException Thrown when the thread pool is
+     * saturated, in which case the match can be submitted again.
+     */
+    public void submitMatchResult(String matchId, String roomName, List<Statistics> playerStatistics) {
+        if (isDuplicate(matchId)) {
+            return;
+        }
+
+        List<StatisticsDelta> deltas = playerStatistics.stream().map(StatisticsDelta::new).collect(Collectors.toList());
+
+        try {
+            super.execute(() -> {
+                leaderboardLock.readLock().lock();
+                try {
+                    EventWriteResult result = context.addStatistics(matchId, deltas);
+                    if (result == EventWriteResult.FAILED) {
+                        LOGGER.log(Level.WARNING, "The match result of room {0} could not be written and is retried through the write buffer.", roomName);
+                        updateEvent(matchId, deltas);
+                    } else if (result == EventWriteResult.WRITTEN) {
+                        deltas.forEach(leaderboard::apply);
+                        deltas.forEach(delta -> statisticsCache.invalidate(delta.getUsername()));
+                    } else {
+                        duplicateCount.incrementAndGet();
+                    }
+                } finally {
+                    leaderboardLock.readLock().unlock();
+                }
+            }, () -> updateEvent(matchId, deltas));
+        } catch (RejectedExecutionException e) {
+            forget(matchId);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the amount of updates that were dropped because an update with the
+     * same event id was added before.
+     *
+     * @return The amount of dropped duplicates.
+     */
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    /**
+     * Adds a player whose account was just created to the leaderboard, so
+     * updates of the player are ranked before the next reload.
+     *
+     * @param username The username of the new player.
+     */
+    public void addPlayer(String username) {
+        leaderboard.add(username);
+    }
+
+    /**
+     * Checks if the leaderboard has been loaded from the persistency service
+     * at least once.
+     *
+     * @return True if the leaderboard is loaded.
+     */
+    public boolean isLeaderboardLoaded() {
+        return leaderboardLoadTime != 0;
+    }
+
+    /**
+     * Gets the best players in a leaderboard category.
+     *
+     * @param category The category by which the players are ranked.
+     * @param count The maximum amount of players that are returned, which is
+     * limited to 100.
+     * @return The best players, best first.
+     */
+    public List<LeaderboardEntry> getTopPlayers(LeaderboardCategory category, int count) {
+        return leaderboard.getTop(category, Math.min(count, MAX_LEADERBOARD_ENTRIES));
+    }
+
+    /**
+     * Gets the rank of a player in a leaderboard category, together with the
+     * players that are ranked just above and below the player.
+     *
+     * @param username The username of the player.
+     * @param category The category by which the players are ranked.
+     * @param neighbours The maximum amount of players above and below the
+     * player that are returned, which is limited to 50.
+     * @return The player and its neighbours, best first, or an empty list if
+     * the player has no statistics.
+     */
+    public List<LeaderboardEntry> getPlayerRank(String username, LeaderboardCategory category, int neighbours) {
+        return leaderboard.getNeighbours(category, username, Math.min(neighbours, MAX_LEADERBOARD_ENTRIES / 2));
     }
 
     /**
@@ -98,14 +387,73 @@ public class StatisticsRepository extends Repository {
      * @return The statistics of the player.
      */
     public Statistics getStatistics(String username) {
-        try {
-            Future<Statistics> f = super.getPool().submit(() -> context.getStatistics(username));
-            return f.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the getStatistics method.", e);
+        return super.await(getStatisticsAsync(username), null, "An error occurred while submitting a callable in the getStatistics method.");
+    }
+
+    /**
+     * Gets the game statistics of a player stored in the persistency service
+     * without blocking the calling thread.
+     *
+     * @param username The username of the player whose statistics needs to be
+     * retrieved from the persistency service.
+     * @return A future that completes with the statistics of the player.
+     */
+    public CompletableFuture<Statistics> getStatisticsAsync(String username) {
+        return statisticsCache.get(username, u -> super.supplyAsync(() -> writeBuffer.read(u, () -> context.getStatistics(u))));
+    }
+
+    /**
+     * Gets the game statistics of multiple players, for example all players
+     * of a room.
+     *
+     * @param usernames The usernames of the players whose statistics need to
+     * be retrieved.
+     * @return The statistics of the players that were found, or null if they
+     * could not be retrieved.
+     */
+    public List<Statistics> getStatistics(Collection<String> usernames) {
+        return super.await(getStatisticsAsync(usernames), null, "An error occurred while submitting a callable in the getStatistics method.");
+    }
+
+    /**
+     * Gets the game statistics of multiple players without blocking the
+     * calling thread. Statistics that are cached are served from the cache;
+     * the statistics of all other players are retrieved from the persistency
+     * service in a single query. The retrieved statistics are not cached,
+     * because they are not loaded through the cache.
+     *
+     * @param usernames The usernames of the players whose statistics need to
+     * be retrieved.
+     * @return A future that completes with the statistics of the players that
+     * were found, or with null if they could not be retrieved.
+     */
+    public CompletableFuture<List<Statistics>> getStatisticsAsync(Collection<String> usernames) {
+        List<Statistics> cached = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String username : usernames) {
+            Statistics statistics = statisticsCache.getIfPresent(username);
+            if (statistics != null) {
+                cached.add(statistics);
+            } else {
+                missing.add(username);
+            }
         }
-        
-        return null;
+
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return super.supplyAsync(() -> {
+            List<Statistics> loaded = writeBuffer.readAll(() -> context.getStatistics(missing));
+            if (loaded == null) {
+                return null;
+            }
+
+            List<Statistics> statistics = new ArrayList<>(cached);
+            statistics.addAll(loaded);
+            return statistics;
+        });
     }
 
     /**
@@ -114,15 +462,257 @@ public class StatisticsRepository extends Repository {
      * @return A collection of all game statistics.
      */
     public List<Statistics> getAllStatistics() {
-        List<Statistics> statistics = new ArrayList<>();
+        return super.await(getAllStatisticsAsync(), new ArrayList<>(), "An error occurred while submitting a callable in the getAllStatistics method.");
+    }
+
+    /**
+     * Gets the game statistics of all players from the persistency service
+     * without blocking the calling thread.
+     *
+     * @return A future that completes with a collection of all game
+     * statistics.
+     */
+    public CompletableFuture<List<Statistics>> getAllStatisticsAsync() {
+        return super.supplyAsync(() -> {
+            List<Statistics> statistics = context.getAllStatistics();
+            return statistics == null ? new ArrayList<>() : statistics;
+        });
+    }
+
+    /**
+     * Replaces the leaderboard with the statistics of all players in the
+     * persistency service, including their buffered updates. If they cannot be
+     * retrieved, the current rankings are kept.
+     *
+     * The statistics are read and loaded while no flush can write and no
+     * update can change the leaderboard, so every update is on the reloaded
+     * leaderboard exactly once: it is in the persistency service, in the write
+     * buffer, or applied after the reload. This blocks updates for the
+     * duration of the query, which is why the leaderboard is reloaded rarely.
+     *
+     * @return True if the leaderboard was reloaded.
+     */
+    boolean reloadLeaderboard() {
+        return writeBuffer.withoutFlushing(() -> {
+            leaderboardLock.writeLock().lock();
+            try {
+                List<Statistics> statistics;
+                try {
+                    statistics = writeBuffer.readAll(context::getAllStatistics);
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "An error occurred while reloading the leaderboard.", e);
+                    statistics = null;
+                }
+
+                if (statistics == null) {
+                    return false;
+                }
+
+                leaderboard.load(statistics);
+                leaderboardLoadTime = System.currentTimeMillis();
+                return true;
+            } finally {
+                leaderboardLock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Reloads the leaderboard if it has never been loaded or if it was loaded
+     * longer than the reload interval ago.
+     */
+    private void reloadLeaderboardIfDue() {
+        if (System.currentTimeMillis() - leaderboardLoadTime < LEADERBOARD_RELOAD_INTERVAL) {
+            return;
+        }
+
+        if (!reloadLeaderboard()) {
+            LOGGER.log(Level.WARNING, "The leaderboard could not be reloaded and is retried in {0} ms.", LEADERBOARD_RETRY_INTERVAL);
+        }
+    }
+
+    /**
+     * Hands the update of a single player that belongs to an event to the
+     * write buffer, unless the event was added recently.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player whose statistics change.
+     * @param update The update that is applied to the delta of the player.
+     */
+    private void addEvent(String eventId, String username, Consumer<StatisticsDelta> update) {
+        if (isDuplicate(eventId)) {
+            return;
+        }
+
+        StatisticsDelta delta = new StatisticsDelta(username);
+        update.accept(delta);
+        updateEvent(eventId, Collections.singletonList(delta));
+    }
+
+    /**
+     * Buffers an update of a single player.
+     *
+     * @param username The username of the player whose statistics change.
+     * @param update The update that is applied to the statistics of the player.
+     */
+    private void update(String username, Consumer<StatisticsDelta> update) {
+        StatisticsDelta delta = new StatisticsDelta(username);
+        update.accept(delta);
+
+        buffer(delta);
+    }
+
+    /**
+     * Hands an update of a single player to the write buffer and applies it
+     * to the leaderboard and the cached statistics of the player.
+     *
+     * The lock of the write buffer guards its buffered updates. Holding it
+     * while the cache is updated makes sure a concurrent read of the player
+     * either sees the update in the buffer and is cached after it, or is
+     * cancelled by the cache update, so an update is never counted twice or
+     * lost in the cache.
+     *
+     * @param delta The changes to the statistics of the player.
+     */
+    private void buffer(StatisticsDelta delta) {
+        leaderboardLock.readLock().lock();
+        try {
+            synchronized (writeBuffer) {
+                if (writeBuffer.add(delta.getUsername(), d -> d.merge(delta))) {
+                    writeThrough(delta);
+                    leaderboard.apply(delta);
+                }
+            }
+        } finally {
+            leaderboardLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Hands the updates of an event to the write buffer and applies them to
+     * the leaderboard and the cached statistics of the players. If the buffer
+     * rejects the event its id is forgotten, so the event can be retried.
+     *
+     * @param eventId The unique id of the event.
+     * @param deltas The changes to the statistics of one or more players.
+     * @see #buffer(StatisticsDelta)
+     */
+    private void updateEvent(String eventId, List<StatisticsDelta> deltas) {
+        leaderboardLock.readLock().lock();
+        try {
+            synchronized (writeBuffer) {
+                if (writeBuffer.addEvent(eventId, deltas)) {
+                    deltas.forEach(this::writeThrough);
+                    deltas.forEach(leaderboard::apply);
+                    return;
+                }
+            }
+        } finally {
+            leaderboardLock.readLock().unlock();
+        }
+
+        forget(eventId);
+    }
+
+    /**
+     * Handles a buffered event once the write buffer is done with it. If the
+     * persistency service had written the event before, it is taken off the
+     * leaderboard again and the cached statistics it was written through to
+     * are invalidated.
+     *
+     * @param eventId The unique id of the event.
+     * @param deltas The changes to the statistics of one or more players.
+     * @param result The outcome of writing the event.
+     */
+    private void eventFlushed(String eventId, Collection<StatisticsDelta> deltas, EventWriteResult result) {
+        if (result != EventWriteResult.DUPLICATE) {
+            return;
+        }
+
+        duplicateCount.incrementAndGet();
+        leaderboardLock.readLock().lock();
         try {
-            Future<List<Statistics>> f = super.getPool().submit(context::getAllStatistics);
-            statistics = f.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the getAllStatistics method.", e);
+            deltas.forEach(delta -> leaderboard.apply(delta.negate()));
+        } finally {
+            leaderboardLock.readLock().unlock();
         }
-        
-        return statistics;
+        deltas.forEach(delta -> statisticsCache.invalidate(delta.getUsername()));
+    }
+
+    /**
+     * Applies a delta to the cached statistics of its player, if they are
+     * cached.
+     *
+     * @param delta The changes to the statistics of the player.
+     */
+    private void writeThrough(StatisticsDelta delta) {
+        statisticsCache.computeIfPresent(delta.getUsername(), delta::applyTo);
+    }
+
+    /**
+     * Checks if an event with the given id was added recently and remembers
+     * the id if it was not. The check and the id are atomic, so concurrent
+     * retries cannot both pass; the id is forgotten again if the update of the
+     * event is not accepted.
+     *
+     * @param eventId The unique id of the event.
+     * @return True if the event is a duplicate that must be dropped.
+     */
+    private boolean isDuplicate(String eventId) {
+        synchronized (recentEventIds) {
+            if (recentEventIds.add(eventId)) {
+                return false;
+            }
+        }
+
+        duplicateCount.incrementAndGet();
+        LOGGER.log(Level.FINE, "Statistics event {0} is a duplicate and is dropped.", eventId);
+        return true;
+    }
+
+    /**
+     * Forgets the id of an event whose update was not accepted, so a retry of
+     * the event is not dropped as a duplicate.
+     *
+     * @param eventId The unique id of the event.
+     */
+    private void forget(String eventId) {
+        synchronized (recentEventIds) {
+            recentEventIds.remove(eventId);
+        }
+    }
+
+    /**
+     * Stops reloading the leaderboard, drains the thread pool and writes all
+     * buffered statistics updates to the persistency service. The pool is
+     * drained first because queued match results can still hand their updates
+     * to the write buffer.
+     */
+    @Override
+    public void close() {
+        leaderboardReloader.shutdownNow();
+        super.close();
+        writeBuffer.close();
+    }
+
+    /**
+     * Gets the cache of statistics, so its hit, miss and eviction counters can
+     * be inspected.
+     *
+     * @return The statistics cache.
+     */
+    public LoadingCache<String, Statistics> getStatisticsCache() {
+        return statisticsCache;
+    }
+
+    /**
+     * Gets the write buffer that coalesces statistics updates, so its batch
+     * size and flush latency can be inspected.
+     *
+     * @return The statistics write buffer.
+     */
+    public StatisticsWriteBuffer getWriteBuffer() {
+        return writeBuffer;
     }
 
 }
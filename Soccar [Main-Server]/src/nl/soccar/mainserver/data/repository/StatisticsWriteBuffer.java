@@ -0,0 +1,647 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.contract.IStatisticsDataContract;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+
+/**
+ * A StatisticsWriteBuffer coalesces statistics updates per player in memory
+ * and writes them to the persistency service as a single batch. The buffer is
+ * flushed periodically, when it holds a given amount of players and when it is
+ * closed.
+ *
+ * Updates that belong to an event with a unique id are not coalesced, because
+ * the persistency service needs to record the id of every event to ignore
+ * events that are retried. They are kept per event and written one event at a
+ * time during a flush.
+ *
+ * Updates that cannot be written are kept and retried. While the persistency
+ * service fails, the periodic flushes back off exponentially up to a maximum
+ * delay, so an outage is not hammered with writes. Buffered updates are never
+ * dropped; instead the buffer holds a maximum amount of players and events,
+ * and updates of new players or events are rejected while it is full, so an
+ * update is either buffered or rejected before it is counted anywhere.
+ *
+ * Whether the persistency service counted an event is only known once it is
+ * flushed, so an IStatisticsEventListener can be notified of the outcome of
+ * every buffered event.
+ *
+ * @author PTS34A
+ */
+public class StatisticsWriteBuffer {
+
+    private static final Logger LOGGER = Logger.getLogger(StatisticsWriteBuffer.class.getSimpleName());
+
+    private static final int DEFAULT_CAPACITY = 100000; // in players and events
+    private static final long MAX_RETRY_DELAY = 60000; // in milliseconds
+
+    private final IStatisticsDataContract context;
+    private final long flushInterval; // in milliseconds
+    private final int flushThreshold;
+    private final int capacity;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushScheduled;
+    private final Lock flushLock;
+    private volatile IStatisticsEventListener eventListener = (eventId, deltas, result) -> {
+    };
+
+    private Map<String, StatisticsDelta> pending;
+    private Map<String, Collection<StatisticsDelta>> pendingEvents;
+    private volatile long retryDelay; // in milliseconds, 0 while flushes succeed, written under flushLock
+    private long nextRetryTime; // in milliseconds, guarded by flushLock
+    private boolean flushing;
+    private long flushGeneration;
+    private boolean closed;
+
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong flushedDeltaCount = new AtomicLong();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private final AtomicLong totalFlushTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong maxFlushTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * Constructor used for instantiation of a StatisticsWriteBuffer object. A
+     * background thread is started that flushes the buffer periodically.
+     *
+     * @param context The persistance service (context) that the buffered
+     * updates are written to.
+     * @param flushInterval The time in milliseconds between periodic flushes.
+     * @param flushThreshold The amount of buffered players at which the buffer
+     * is flushed before the next periodic flush.
+     */
+    public StatisticsWriteBuffer(IStatisticsDataContract context, long flushInterval, int flushThreshold) {
+        this(context, flushInterval, flushThreshold, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructor used for instantiation of a StatisticsWriteBuffer object. A
+     * background thread is started that flushes the buffer periodically.
+     *
+     * @param context The persistance service (context) that the buffered
+     * updates are written to.
+     * @param flushInterval The time in milliseconds between periodic flushes.
+     * @param flushThreshold The amount of buffered players at which the buffer
+     * is flushed before the next periodic flush.
+     * @param capacity The amount of buffered players and events at which
+     * updates of new players and new events are rejected.
+     */
+    public StatisticsWriteBuffer(IStatisticsDataContract context, long flushInterval, int flushThreshold, int capacity) {
+        this.context = context;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.capacity = capacity;
+
+        pending = new HashMap<>();
+        pendingEvents = new LinkedHashMap<>();
+        flushScheduled = new AtomicBoolean();
+        flushLock = new ReentrantLock();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "StatisticsWriteBuffer-flush");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> flush(false), flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies an update to the buffered delta of the given player. The update
+     * is rejected if the buffer is already closed, or if the player has no
+     * buffered delta yet and the buffer is full.
+     *
+     * @param username The username of the player whose statistics change.
+     * @param update The update that is applied to the delta of the player.
+     * @return True if the update was buffered, false if it was rejected.
+     */
+    public boolean add(String username, Consumer<StatisticsDelta> update) {
+        boolean full;
+
+        synchronized (this) {
+            if (closed) {
+                LOGGER.log(Level.SEVERE, "The statistics write buffer is closed, an update of {0} is rejected.", username);
+                return false;
+            }
+
+            if (!pending.containsKey(username) && isFull()) {
+                rejectedCount.incrementAndGet();
+                LOGGER.log(Level.SEVERE, "The statistics write buffer is full, an update of {0} is rejected.", username);
+                return false;
+            }
+
+            update.accept(pending.computeIfAbsent(username, StatisticsDelta::new));
+            full = pending.size() >= flushThreshold;
+        }
+
+        if (full) {
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Buffers the deltas of an event with a unique id. The deltas are not
+     * coalesced with other updates. An event whose id is already buffered is
+     * ignored. The event is rejected if the buffer is already closed or full.
+     *
+     * @param eventId The unique id of the event.
+     * @param deltas The changes to the statistics of one or more players.
+     * @return True if the event was buffered, false if it was rejected.
+     */
+    public boolean addEvent(String eventId, Collection<StatisticsDelta> deltas) {
+        boolean full;
+
+        synchronized (this) {
+            if (closed) {
+                LOGGER.log(Level.SEVERE, "The statistics write buffer is closed, statistics event {0} is rejected.", eventId);
+                return false;
+            }
+
+            if (!pendingEvents.containsKey(eventId) && isFull()) {
+                rejectedCount.incrementAndGet();
+                LOGGER.log(Level.SEVERE, "The statistics write buffer is full, statistics event {0} is rejected.", eventId);
+                return false;
+            }
+
+            pendingEvents.putIfAbsent(eventId, deltas);
+            full = pendingEvents.size() >= flushThreshold;
+        }
+
+        if (full) {
+            scheduleFlush();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the buffer holds its maximum amount of players and events.
+     * Must be called while holding the lock of this buffer.
+     *
+     * @return True if the buffer is full.
+     */
+    private boolean isFull() {
+        return pending.size() + pendingEvents.size() >= capacity;
+    }
+
+    /**
+     * Sets the listener that is notified when a buffered event is written or
+     * turns out to be a duplicate.
+     *
+     * @param eventListener The listener of buffered events.
+     */
+    public void setEventListener(IStatisticsEventListener eventListener) {
+        this.eventListener = eventListener;
+    }
+
+    /**
+     * Schedules a flush on the background thread, unless one is already
+     * scheduled. If the buffer is being closed the flush is not scheduled;
+     * the buffered updates are then written by the final flush of close.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            scheduler.execute(() -> flush(false));
+        } catch (RejectedExecutionException e) {
+            flushScheduled.set(false);
+        }
+    }
+
+    /**
+     * Writes the buffered events to the persistency service, followed by all
+     * buffered deltas as one batch. Updates that could not be written are put
+     * back into the buffer so they are retried on a later flush.
+     */
+    public void flush() {
+        flush(true);
+    }
+
+    /**
+     * Writes the buffered updates to the persistency service. After a failed
+     * flush, periodic and threshold flushes are skipped until the retry delay
+     * has passed. The retry delay starts at the flush interval and doubles
+     * with every failed flush up to a maximum; it is reset by a successful
+     * flush.
+     *
+     * @param force True to flush even if the retry delay has not passed.
+     */
+    private void flush(boolean force) {
+        flushLock.lock();
+        try {
+            flushScheduled.set(false);
+            if (!force && System.currentTimeMillis() < nextRetryTime) {
+                return;
+            }
+
+            Map<String, Collection<StatisticsDelta>> events;
+            Map<String, StatisticsDelta> batch;
+            synchronized (this) {
+                if (pending.isEmpty() && pendingEvents.isEmpty()) {
+                    return;
+                }
+
+                events = pendingEvents;
+                pendingEvents = new LinkedHashMap<>();
+                batch = pending;
+                pending = new HashMap<>();
+
+                flushing = true;
+                flushGeneration++;
+            }
+
+            boolean written = false;
+            try {
+                written = flushEvents(events) & flushBatch(batch);
+            } finally {
+                if (written) {
+                    retryDelay = 0;
+                    nextRetryTime = 0;
+                } else {
+                    retryDelay = retryDelay == 0 ? flushInterval : Math.min(retryDelay * 2, Math.max(flushInterval, MAX_RETRY_DELAY));
+                    nextRetryTime = System.currentTimeMillis() + retryDelay;
+                }
+
+                synchronized (this) {
+                    flushing = false;
+                    notifyAll();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch of deltas to the persistency service. If the batch could
+     * not be written, the deltas are merged back into the buffer.
+     *
+     * @param batch The deltas that are written, per player.
+     * @return True if the batch was written.
+     */
+    private boolean flushBatch(Map<String, StatisticsDelta> batch) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        boolean written;
+        try {
+            written = context.addStatistics(batch.values());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "An error occurred while flushing the statistics write buffer.", e);
+            written = false;
+        }
+        long flushTime = System.nanoTime() - start;
+
+        if (!written) {
+            failedFlushCount.incrementAndGet();
+            synchronized (this) {
+                batch.values().forEach(d -> pending.merge(d.getUsername(), d, StatisticsDelta::merge));
+            }
+
+            LOGGER.log(Level.WARNING, "A batch of {0} statistics updates could not be written and will be retried.", batch.size());
+            return false;
+        }
+
+        flushCount.incrementAndGet();
+        flushedDeltaCount.addAndGet(batch.size());
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        totalFlushTime.addAndGet(flushTime);
+        maxFlushTime.accumulateAndGet(flushTime, Math::max);
+        return true;
+    }
+
+    /**
+     * Reads the statistics of a player from the persistency service and adds
+     * the updates of the player that are still buffered. The query does not
+     * block flushes; if a flush starts while the statistics are read, they are
+     * read again once it has finished. That way every update is counted
+     * exactly once: either it is already in the persistency service or it is
+     * still in the buffer.
+     *
+     * @param username The username of the player whose statistics are read.
+     * @param query The query that reads the statistics from the persistency
+     * service.
+     * @return The statistics including the buffered updates, or null if the
+     * query did not find the player.
+     */
+    public Statistics read(String username, Supplier<Statistics> query) {
+        while (true) {
+            long generation = awaitFlush();
+            Statistics statistics = query.get();
+
+            synchronized (this) {
+                if (generation == flushGeneration) {
+                    return statistics == null ? null : withBuffered(statistics);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the statistics of multiple players from the persistency service
+     * and adds the updates of those players that are still buffered.
+     *
+     * @param query The query that reads the statistics from the persistency
+     * service.
+     * @return The statistics including the buffered updates, or null if the
+     * query failed.
+     * @see #read(String, Supplier)
+     */
+    public List<Statistics> readAll(Supplier<List<Statistics>> query) {
+        while (true) {
+            long generation = awaitFlush();
+            List<Statistics> result = query.get();
+            if (result == null) {
+                return null;
+            }
+
+            synchronized (this) {
+                if (generation == flushGeneration) {
+                    List<Statistics> statistics = new ArrayList<>();
+                    result.forEach(s -> statistics.add(withBuffered(s)));
+                    return statistics;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a task while no flush can write to the persistency service. During
+     * the task the persistency service and the buffered updates together only
+     * change through updates that are added to the buffer.
+     *
+     * @param <T> The type of the result of the task.
+     * @param task The task that is run.
+     * @return The result of the task.
+     */
+    public <T> T withoutFlushing(Supplier<T> task) {
+        flushLock.lock();
+        try {
+            return task.get();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Waits until no flush is writing to the persistency service.
+     *
+     * @return The generation of the last flush, which changes as soon as the
+     * next flush starts writing.
+     */
+    private synchronized long awaitFlush() {
+        boolean interrupted = false;
+        while (flushing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return flushGeneration;
+    }
+
+    /**
+     * Adds the updates of a player that are still buffered to the given
+     * statistics of the player.
+     *
+     * @param statistics The statistics read from the persistency service.
+     * @return The statistics including the buffered updates.
+     */
+    private Statistics withBuffered(Statistics statistics) {
+        String username = statistics.getUsername();
+        StatisticsDelta buffered = new StatisticsDelta(username);
+
+        synchronized (this) {
+            StatisticsDelta delta = pending.get(username);
+            if (delta != null) {
+                buffered.merge(delta);
+            }
+
+            pendingEvents.values().forEach(deltas -> deltas.stream()
+                    .filter(d -> d.getUsername().equals(username))
+                    .forEach(buffered::merge));
+        }
+
+        return buffered.isEmpty() ? statistics : buffered.applyTo(statistics);
+    }
+
+    /**
+     * Writes events to the persistency service one event at a time. After
+     * the first event that could not be written the remaining events are not
+     * tried, and all events that were not written are put back in the buffer.
+     * The event listener is notified of every event that leaves the buffer.
+     *
+     * @param events The deltas that are written, per event id.
+     * @return True if all events were written.
+     */
+    private boolean flushEvents(Map<String, Collection<StatisticsDelta>> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        Map<String, EventWriteResult> results = new LinkedHashMap<>();
+        List<String> failed = new ArrayList<>();
+        events.forEach((eventId, deltas) -> {
+            if (!failed.isEmpty()) {
+                failed.add(eventId);
+                return;
+            }
+
+            EventWriteResult result;
+            try {
+                result = context.addStatistics(eventId, deltas);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "An error occurred while flushing a statistics event.", e);
+                result = EventWriteResult.FAILED;
+            }
+
+            if (result == EventWriteResult.FAILED) {
+                failed.add(eventId);
+            } else {
+                results.put(eventId, result);
+            }
+        });
+
+        synchronized (this) {
+            failed.forEach(eventId -> pendingEvents.putIfAbsent(eventId, events.get(eventId)));
+        }
+
+        results.forEach((eventId, result) -> eventListener.eventFlushed(eventId, events.get(eventId), result));
+
+        if (failed.isEmpty()) {
+            return true;
+        }
+
+        failedFlushCount.incrementAndGet();
+        LOGGER.log(Level.WARNING, "{0} statistics events could not be written and will be retried.", failed.size());
+        return false;
+    }
+
+    /**
+     * Stops the periodic flushes and writes all remaining deltas to the
+     * persistency service. Updates that are added after the buffer is closed
+     * are rejected.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+        }
+
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+
+        int lost;
+        int lostEvents;
+        synchronized (this) {
+            lost = pending.size();
+            lostEvents = pendingEvents.size();
+        }
+
+        if (lost > 0) {
+            LOGGER.log(Level.SEVERE, "Statistics updates of {0} players could not be written before shutdown.", lost);
+        }
+
+        if (lostEvents > 0) {
+            LOGGER.log(Level.SEVERE, "{0} statistics events could not be written before shutdown.", lostEvents);
+        }
+
+        LOGGER.log(Level.INFO, "Statistics write buffer closed: {0}", this);
+    }
+
+    /**
+     * Gets the amount of players whose updates are waiting to be written.
+     *
+     * @return The amount of buffered players.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Gets the amount of events whose updates are waiting to be written.
+     *
+     * @return The amount of buffered events.
+     */
+    public synchronized int getPendingEventCount() {
+        return pendingEvents.size();
+    }
+
+    /**
+     * Gets the amount of batches that were written successfully.
+     *
+     * @return The amount of successful flushes.
+     */
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    /**
+     * Gets the amount of batches that could not be written.
+     *
+     * @return The amount of failed flushes.
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    /**
+     * Gets the amount of updates of new players and new events that were
+     * rejected because the buffer was full.
+     *
+     * @return The amount of rejected updates.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Gets the time periodic flushes wait after a failed flush before they
+     * try again.
+     *
+     * @return The retry delay in milliseconds, or 0 if the last flush
+     * succeeded.
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Gets the average amount of players written per batch.
+     *
+     * @return The average batch size.
+     */
+    public double getAverageBatchSize() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : flushedDeltaCount.get() / (double) count;
+    }
+
+    /**
+     * Gets the largest amount of players written in one batch.
+     *
+     * @return The maximum batch size.
+     */
+    public long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    /**
+     * Gets the average time it took to write a batch.
+     *
+     * @return The average flush latency in milliseconds.
+     */
+    public double getAverageFlushTime() {
+        long count = flushCount.get();
+        return count == 0 ? 0 : totalFlushTime.get() / (double) count / 1_000_000;
+    }
+
+    /**
+     * Gets the longest time it took to write a batch.
+     *
+     * @return The maximum flush latency in milliseconds.
+     */
+    public double getMaxFlushTime() {
+        return maxFlushTime.get() / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StatisticsWriteBuffer[pending=%d, pendingEvents=%d, flushes=%d, failed=%d, rejected=%d, retryDelay=%dms, avgBatch=%.1f, maxBatch=%d, avgFlush=%.2fms, maxFlush=%.2fms]",
+                getPendingCount(), getPendingEventCount(), getFlushCount(), getFailedFlushCount(), getRejectedCount(), getRetryDelay(), getAverageBatchSize(), getMaxBatchSize(), getAverageFlushTime(), getMaxFlushTime());
+    }
+
+}
@@ -1,27 +1,25 @@
 package nl.soccar.mainserver.data.repository;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.CompletableFuture;
 import nl.soccar.library.enumeration.Privilege;
 import nl.soccar.mainserver.data.contract.IUserDataContract;
+import nl.soccar.mainserver.util.LoadingCache;
 
 /**
  * A UserRepository object is used for manipulation of user data in a
- * persistence service.
+ * persistence service. Privileges are cached for a limited time and are
+ * invalidated when they are changed through this repository.
  *
  * @author PTS34A
  */
 public class UserRepository extends Repository {
 
-    private static final Logger LOGGER = Logger.getLogger(UserRepository.class.getSimpleName());
+    private static final int PRIVILEGE_CACHE_SIZE = 10000;
+    private static final long PRIVILEGE_CACHE_TTL = 300000; // in milliseconds
 
     private final IUserDataContract context;
 
-    private final Map<String, Privilege> privileges;
+    private final LoadingCache<String, Privilege> privileges;
 
     /**
      * Constructor used for initiation of a UserClientDataRepository object that
@@ -32,9 +30,23 @@ public class UserRepository extends Repository {
      * communicates with.
      */
     public UserRepository(IUserDataContract context) {
+        this(context, ExecutionMode.POOLED);
+    }
+
+    /**
+     * Constructor used for initiation of a UserClientDataRepository object that
+     * can be used for manipulation of user data in a persistence service that
+     * is passed in as argument by a client.
+     *
+     * @param context The persistance service (context) that this repository
+     * communicates with.
+     * @param mode The way this repository runs its queries.
+     */
+    public UserRepository(IUserDataContract context, ExecutionMode mode) {
+        super(mode);
         this.context = context;
 
-        privileges = new HashMap<>();
+        privileges = new LoadingCache<>(PRIVILEGE_CACHE_SIZE, PRIVILEGE_CACHE_TTL);
     }
 
     /**
@@ -46,13 +58,21 @@ public class UserRepository extends Repository {
      * added succesfully to the persistency service.
      */
     public boolean add(String username, byte[] password) {
-        try {
-            Future<Boolean> f = super.getPool().submit(() -> context.add(username, password));
-            return f.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the add method.", e);
-        }
-        return false;
+        return super.await(addAsync(username, password), false, "An error occurred while submitting a callable in the add method.");
+    }
+
+    /**
+     * Adds a new user to the persistency service without blocking the calling
+     * thread.
+     *
+     * @param username The username of the new player.
+     * @param password The password of the new player.
+     * @return A future that completes with true when the username does not
+     * exist already and when player is added succesfully to the persistency
+     * service.
+     */
+    public CompletableFuture<Boolean> addAsync(String username, byte[] password) {
+        return super.supplyAsync(() -> context.add(username, password));
     }
 
     /**
@@ -65,7 +85,11 @@ public class UserRepository extends Repository {
      * the given username.
      */
     public void changePrivilege(String username, Privilege privilege) {
-        super.getPool().execute(() -> context.changePrivilege(username, privilege));
+        privileges.invalidate(username);
+        super.execute(() -> {
+            context.changePrivilege(username, privilege);
+            privileges.invalidate(username);
+        });
     }
 
     /**
@@ -77,13 +101,19 @@ public class UserRepository extends Repository {
      * @return True if the player exists.
      */
     public boolean checkIfExists(String username) {
-        try {
-            Future<Boolean> f = super.getPool().submit(() -> context.checkIfExists(username));
-            return f.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the checkIfExists method.", e);
-        }
-        return false;
+        return super.await(checkIfExistsAsync(username), false, "An error occurred while submitting a callable in the checkIfExists method.");
+    }
+
+    /**
+     * Checks if a player exists in the persistency service based on the stored
+     * username without blocking the calling thread.
+     *
+     * @param username The username of the player that must be checked if it
+     * exists in the persistency service.
+     * @return A future that completes with true if the player exists.
+     */
+    public CompletableFuture<Boolean> checkIfExistsAsync(String username) {
+        return super.supplyAsync(() -> context.checkIfExists(username));
     }
 
     /**
@@ -97,13 +127,22 @@ public class UserRepository extends Repository {
      * @return True if the password matches the username.
      */
     public boolean checkPassword(String username, byte[] hashedPassword) {
-        try {
-            Future<Boolean> f = super.getPool().submit(() -> context.checkPassword(username, hashedPassword));
-            return f.get();
-        } catch (InterruptedException | ExecutionException e) {
-            LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the checkPassword method.", e);
-        }
-        return false;
+        return super.await(checkPasswordAsync(username, hashedPassword), false, "An error occurred while submitting a callable in the checkPassword method.");
+    }
+
+    /**
+     * Checks if the given hashed password belongs to the given username stored
+     * in the persistency service without blocking the calling thread.
+     *
+     * @param username The username of the player that must be checked if it
+     * mathces with the password.
+     * @param hashedPassword The password that must be checked it is matches
+     * with the username.
+     * @return A future that completes with true if the password matches the
+     * username.
+     */
+    public CompletableFuture<Boolean> checkPasswordAsync(String username, byte[] hashedPassword) {
+        return super.supplyAsync(() -> context.checkPassword(username, hashedPassword));
     }
 
     /**
@@ -115,20 +154,29 @@ public class UserRepository extends Repository {
      * @return The privilege of the given user.
      */
     public Privilege getPrivilege(String username) {
-        Privilege privilege = privileges.get(username);
-
-        if (privilege == null) {
-            try {
-                Future<Privilege> f = super.getPool().submit(() -> context.getPrivilege(username));
-                privilege = f.get();
-                
-                privileges.put(username, privilege);
-            } catch (InterruptedException | ExecutionException e) {
-                LOGGER.log(Level.WARNING, "An error occurred while submitting a callable in the getPrivilege method.", e);
-            }
-        }
-
-        return privilege;
+        return super.await(getPrivilegeAsync(username), null, "An error occurred while submitting a callable in the getPrivilege method.");
+    }
+
+    /**
+     * Retrieves the privilege of the user with the given username from the
+     * persistency service without blocking the calling thread.
+     *
+     * @param username The username of the user whose privilege is being
+     * retrieved.
+     * @return A future that completes with the privilege of the given user.
+     */
+    public CompletableFuture<Privilege> getPrivilegeAsync(String username) {
+        return privileges.get(username, u -> super.supplyAsync(() -> context.getPrivilege(u)));
+    }
+
+    /**
+     * Gets the cache of privileges, so its hit, miss and eviction counters
+     * can be inspected.
+     *
+     * @return The privilege cache.
+     */
+    public LoadingCache<String, Privilege> getPrivilegeCache() {
+        return privileges;
     }
 
 }
@@ -0,0 +1,58 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Comparator;
+import java.util.Map;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A ComparingPlacementStrategy chooses the game server whose load is the
+ * lowest according to a comparator.
+ *
+ * @author PTS34A
+ */
+public class ComparingPlacementStrategy implements PlacementStrategy {
+
+    /**
+     * Orders loads from most to least available memory.
+     */
+    public static final Comparator<GameServerLoad> MOST_MEMORY = Comparator.comparingLong(GameServerLoad::getAvailableMemory).reversed();
+
+    /**
+     * Orders loads from least to most sessions, then by available memory.
+     */
+    public static final Comparator<GameServerLoad> LEAST_SESSIONS = Comparator.comparingInt(GameServerLoad::getSessionCount).thenComparing(MOST_MEMORY);
+
+    /**
+     * Orders loads from least to most players, then by amount of sessions.
+     */
+    public static final Comparator<GameServerLoad> LEAST_PLAYERS = Comparator.comparingInt(GameServerLoad::getPlayerCount).thenComparing(LEAST_SESSIONS);
+
+    private final Comparator<GameServerLoad> comparator;
+
+    /**
+     * Constructor used for instantiation of a ComparingPlacementStrategy
+     * object.
+     *
+     * @param comparator The comparator that orders loads from most to least
+     * preferred.
+     */
+    public ComparingPlacementStrategy(Comparator<GameServerLoad> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public IGameServerForMainServer choose(Map<IGameServerForMainServer, GameServerLoad> loads) {
+        IGameServerForMainServer chosen = null;
+        GameServerLoad best = null;
+
+        for (Map.Entry<IGameServerForMainServer, GameServerLoad> load : loads.entrySet()) {
+            if (best == null || comparator.compare(load.getValue(), best) < 0) {
+                chosen = load.getKey();
+                best = load.getValue();
+            }
+        }
+
+        return chosen;
+    }
+
+}
@@ -0,0 +1,139 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A FailureDetector decides which game servers have failed, based on the phi
+ * value of their ping history. A game server whose last ping failed, or whose
+ * phi exceeds the suspicion threshold, is suspected: it stays registered but
+ * is not chosen for new sessions. A game server whose phi exceeds the failure
+ * threshold is considered failed and must be deregistered. A single missed
+ * ping therefore only makes a game server suspected, while a game server that
+ * stops responding is detected after a few ping intervals.
+ *
+ * @author PTS34A
+ */
+public class FailureDetector {
+
+    private static final Logger LOGGER = Logger.getLogger(FailureDetector.class.getSimpleName());
+
+    private final double suspicionThreshold;
+    private final double failureThreshold;
+
+    private final AtomicLong suspicionCount = new AtomicLong();
+    private final AtomicLong falsePositiveCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong totalDetectionTime = new AtomicLong(); // in milliseconds
+    private final AtomicLong maxDetectionTime = new AtomicLong(); // in milliseconds
+
+    /**
+     * Constructor used for instantiation of a FailureDetector object.
+     *
+     * @param suspicionThreshold The phi from which a game server is suspected.
+     * @param failureThreshold The phi from which a game server has failed.
+     */
+    public FailureDetector(double suspicionThreshold, double failureThreshold) {
+        this.suspicionThreshold = suspicionThreshold;
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * Updates the suspicion of every game server and returns the game servers
+     * that have failed.
+     *
+     * @param <T> The type of the game server keys.
+     * @param health The health of every game server.
+     * @param now The current time in milliseconds.
+     * @return The game servers that have failed.
+     */
+    public <T> List<T> evaluate(Map<T, GameServerHealth> health, long now) {
+        List<T> failed = new ArrayList<>();
+
+        health.forEach((server, serverHealth) -> {
+            double phi = serverHealth.phi(now);
+
+            if (phi >= failureThreshold) {
+                long detectionTime = now - serverHealth.getLastResponse();
+                failureCount.incrementAndGet();
+                totalDetectionTime.addAndGet(detectionTime);
+                maxDetectionTime.accumulateAndGet(detectionTime, Math::max);
+                failed.add(server);
+
+                LOGGER.log(Level.WARNING, "A game server has failed (phi {0}), {1} ms after its last response.", new Object[]{phi, detectionTime});
+            } else if (phi >= suspicionThreshold || serverHealth.hasLastPingFailed()) {
+                if (serverHealth.setSuspected(true, now)) {
+                    suspicionCount.incrementAndGet();
+
+                    LOGGER.log(Level.WARNING, "A game server is suspected (phi {0}) and is not used for new sessions.", phi);
+                }
+            } else if (serverHealth.setSuspected(false, now)) {
+                falsePositiveCount.incrementAndGet();
+
+                LOGGER.log(Level.INFO, "A suspected game server responded again and is used for new sessions.");
+            }
+        });
+
+        return failed;
+    }
+
+    /**
+     * Gets the amount of times a game server became suspected.
+     *
+     * @return The amount of suspicions.
+     */
+    public long getSuspicionCount() {
+        return suspicionCount.get();
+    }
+
+    /**
+     * Gets the amount of suspected game servers that responded again before
+     * they were considered failed.
+     *
+     * @return The amount of false positives.
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.get();
+    }
+
+    /**
+     * Gets the amount of game servers that were considered failed.
+     *
+     * @return The amount of failures.
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Gets the average time between the last response of a failed game server
+     * and the moment it was considered failed.
+     *
+     * @return The average detection time in milliseconds.
+     */
+    public double getAverageDetectionTime() {
+        long count = failureCount.get();
+        return count == 0 ? 0 : totalDetectionTime.get() / (double) count;
+    }
+
+    /**
+     * Gets the longest time between the last response of a failed game server
+     * and the moment it was considered failed.
+     *
+     * @return The maximum detection time in milliseconds.
+     */
+    public long getMaxDetectionTime() {
+        return maxDetectionTime.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("FailureDetector[suspicions=%d, falsePositives=%d, failures=%d, avgDetection=%.0fms, maxDetection=%dms]",
+                getSuspicionCount(), getFalsePositiveCount(), getFailureCount(), getAverageDetectionTime(), getMaxDetectionTime());
+    }
+
+}
@@ -0,0 +1,219 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * A GameServerHealth keeps the results of the pings to a single game server:
+ * the round trip time of the last ping, a moving average of the round trip
+ * times and the history of the intervals between successful responses.
+ *
+ * From the interval history the phi value of the accrual failure detector is
+ * calculated: the suspicion that the game server has failed, given the time
+ * that passed since its last response. A phi of 1 means a chance of about 10%
+ * that the game server is still alive, a phi of 2 about 1%, and so on.
+ *
+ * @author PTS34A
+ */
+public final class GameServerHealth {
+
+    private static final double AVERAGE_WEIGHT = 0.2;
+    private static final int HISTORY_SIZE = 100;
+    private static final double MIN_STANDARD_DEVIATION_FACTOR = 0.25;
+
+    private final Deque<Long> intervals; // in milliseconds
+    private double intervalSum;
+    private double intervalSquareSum;
+
+    private long lastPingTime = -1; // in milliseconds
+    private double averagePingTime; // in milliseconds
+    private long lastResponse; // in milliseconds
+    private long pingCount;
+    private long failureCount;
+    private boolean lastPingFailed;
+
+    private boolean suspected;
+    private long suspectedSince; // in milliseconds
+
+    /**
+     * Constructor used for instantiation of a GameServerHealth object. The
+     * registration of the game server counts as its first response.
+     *
+     * @param expectedInterval The time in milliseconds between two pings,
+     * which is used as the interval history until the game server responded.
+     * @param registered The time in milliseconds at which the game server
+     * registered.
+     */
+    public GameServerHealth(long expectedInterval, long registered) {
+        intervals = new ArrayDeque<>();
+        lastResponse = registered;
+
+        addInterval(expectedInterval);
+    }
+
+    /**
+     * Records a successful ping.
+     *
+     * @param pingTime The round trip time of the ping in milliseconds.
+     * @param now The time in milliseconds at which the response arrived.
+     */
+    public synchronized void recordPing(long pingTime, long now) {
+        if (pingCount == 0) {
+            // The first ping is not a full interval after the registration.
+            averagePingTime = pingTime;
+        } else {
+            averagePingTime += AVERAGE_WEIGHT * (pingTime - averagePingTime);
+            addInterval(now - lastResponse);
+        }
+
+        lastPingTime = pingTime;
+        lastResponse = now;
+        lastPingFailed = false;
+        pingCount++;
+    }
+
+    /**
+     * Records a ping that failed or did not respond in time.
+     */
+    public synchronized void recordFailure() {
+        failureCount++;
+        lastPingFailed = true;
+    }
+
+    /**
+     * Calculates the suspicion that the game server has failed.
+     *
+     * @param now The current time in milliseconds.
+     * @return The phi value of the game server.
+     */
+    public synchronized double phi(long now) {
+        double mean = intervalSum / intervals.size();
+        double variance = intervalSquareSum / intervals.size() - mean * mean;
+        double standardDeviation = Math.max(Math.sqrt(Math.max(0, variance)), mean * MIN_STANDARD_DEVIATION_FACTOR);
+
+        // Logistic approximation of the cumulative normal distribution.
+        double y = (now - lastResponse - mean) / standardDeviation;
+        double e = Math.exp(-y * (1.5976 + 0.070566 * y * y));
+        double chanceLater = now - lastResponse > mean ? e / (1 + e) : 1 - 1 / (1 + e);
+
+        return -Math.log10(Math.max(chanceLater, Double.MIN_VALUE));
+    }
+
+    /**
+     * Marks the game server as suspected or not suspected.
+     *
+     * @param suspected True if the game server is suspected to have failed.
+     * @param now The current time in milliseconds.
+     * @return True if the suspicion changed.
+     */
+    public synchronized boolean setSuspected(boolean suspected, long now) {
+        if (this.suspected == suspected) {
+            return false;
+        }
+
+        this.suspected = suspected;
+        suspectedSince = suspected ? now : 0;
+        return true;
+    }
+
+    /**
+     * Checks if the game server is suspected to have failed. Suspected game
+     * servers are not chosen for new sessions.
+     *
+     * @return True if the game server is suspected.
+     */
+    public synchronized boolean isSuspected() {
+        return suspected;
+    }
+
+    /**
+     * Gets the time at which the game server became suspected.
+     *
+     * @return The time in milliseconds, or 0 if the game server is not
+     * suspected.
+     */
+    public synchronized long getSuspectedSince() {
+        return suspectedSince;
+    }
+
+    /**
+     * Checks if the last ping failed or did not respond in time.
+     *
+     * @return True if the last ping failed.
+     */
+    public synchronized boolean hasLastPingFailed() {
+        return lastPingFailed;
+    }
+
+    /**
+     * Gets the round trip time of the last successful ping.
+     *
+     * @return The round trip time in milliseconds, or -1 if the game server
+     * never responded.
+     */
+    public synchronized long getLastPingTime() {
+        return lastPingTime;
+    }
+
+    /**
+     * Gets the exponential moving average of the round trip times.
+     *
+     * @return The average round trip time in milliseconds.
+     */
+    public synchronized double getAveragePingTime() {
+        return averagePingTime;
+    }
+
+    /**
+     * Gets the time at which the last successful ping arrived, or the game
+     * server registered if it never responded.
+     *
+     * @return The time of the last response in milliseconds.
+     */
+    public synchronized long getLastResponse() {
+        return lastResponse;
+    }
+
+    /**
+     * Gets the amount of successful pings.
+     *
+     * @return The amount of successful pings.
+     */
+    public synchronized long getPingCount() {
+        return pingCount;
+    }
+
+    /**
+     * Gets the amount of pings that failed or did not respond in time.
+     *
+     * @return The amount of failed pings.
+     */
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("GameServerHealth[lastPing=%dms, avgPing=%.1fms, pings=%d, failures=%d, phi=%.2f, suspected=%b]",
+                lastPingTime, averagePingTime, pingCount, failureCount, phi(System.currentTimeMillis()), suspected);
+    }
+
+    /**
+     * Adds an interval between two responses to the history, dropping the
+     * oldest interval when the history is full.
+     *
+     * @param interval The interval in milliseconds.
+     */
+    private void addInterval(long interval) {
+        intervals.addLast(interval);
+        intervalSum += interval;
+        intervalSquareSum += (double) interval * interval;
+
+        if (intervals.size() > HISTORY_SIZE) {
+            long oldest = intervals.removeFirst();
+            intervalSum -= oldest;
+            intervalSquareSum -= (double) oldest * oldest;
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.concurrent.atomic.AtomicLong;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A GameServerInfo holds everything the main server knows about a registered
+ * game server: its remote stub, the moment it registered, the results of its
+ * pings, the ping that is in flight and its last reported load.
+ *
+ * @author PTS34A
+ */
+public final class GameServerInfo {
+
+    /**
+     * The sequence number of a game server that has not applied any session
+     * event since it registered.
+     */
+    public static final long NO_SEQUENCE_NUMBER = -1;
+
+    private static final long NO_PING = -1;
+    private static final long PING_QUEUED = 0;
+
+    private final IGameServerForMainServer gameServer;
+    private final long registered; // in milliseconds
+    private final GameServerHealth health;
+    private volatile GameServerLoad load;
+    private final AtomicLong ping = new AtomicLong(NO_PING); // the start of the ping in flight in milliseconds, or NO_PING or PING_QUEUED
+    private long lastSequenceNumber = NO_SEQUENCE_NUMBER; // guarded by this
+
+    /**
+     * Constructor used for instantiation of a GameServerInfo object.
+     *
+     * @param gameServer The remote stub of the game server.
+     * @param pingInterval The time in milliseconds between two pings.
+     * @param registered The time in milliseconds at which the game server
+     * registered.
+     */
+    public GameServerInfo(IGameServerForMainServer gameServer, long pingInterval, long registered) {
+        this.gameServer = gameServer;
+        this.registered = registered;
+
+        health = new GameServerHealth(pingInterval, registered);
+        load = new GameServerLoad(0, 0, 0, 0);
+    }
+
+    /**
+     * Gets the remote stub of the game server.
+     *
+     * @return The game server.
+     */
+    public IGameServerForMainServer getGameServer() {
+        return gameServer;
+    }
+
+    /**
+     * Gets the moment the game server registered.
+     *
+     * @return The time of the registration in milliseconds.
+     */
+    public long getRegistered() {
+        return registered;
+    }
+
+    /**
+     * Gets the results of the pings to the game server.
+     *
+     * @return The health of the game server.
+     */
+    public GameServerHealth getHealth() {
+        return health;
+    }
+
+    /**
+     * Gets the load the game server reported during its last ping.
+     *
+     * @return The last reported load.
+     */
+    public GameServerLoad getLoad() {
+        return load;
+    }
+
+    /**
+     * Replaces the load of the game server with a newly reported load.
+     *
+     * @param load The reported load.
+     */
+    public void setLoad(GameServerLoad load) {
+        this.load = load;
+    }
+
+    /**
+     * Marks a ping to the game server as in flight and waiting for a ping
+     * thread, unless the previous ping is still in flight. A game server whose
+     * ping is in flight is not pinged again, so a game server that does not
+     * respond takes at most one ping thread.
+     *
+     * @return True if the ping is marked as in flight, false if the previous
+     * ping is still in flight.
+     */
+    public boolean beginPing() {
+        return ping.compareAndSet(NO_PING, PING_QUEUED);
+    }
+
+    /**
+     * Marks the ping in flight as running on a ping thread, unless it was
+     * withdrawn while it waited for the thread.
+     *
+     * @param now The current time in milliseconds.
+     * @return True if the ping may run, false if it was withdrawn.
+     */
+    public boolean startPing(long now) {
+        return ping.compareAndSet(PING_QUEUED, Math.max(now, 1));
+    }
+
+    /**
+     * Withdraws the ping in flight if it is still waiting for a ping thread.
+     *
+     * @return True if the ping was withdrawn, false if it already started.
+     */
+    public boolean withdrawPing() {
+        return ping.compareAndSet(PING_QUEUED, NO_PING);
+    }
+
+    /**
+     * Gets the moment the ping in flight started running on a ping thread.
+     *
+     * @return The start of the ping in milliseconds, or 0 if no ping is
+     * running.
+     */
+    public long getPingStarted() {
+        return Math.max(ping.get(), 0);
+    }
+
+    /**
+     * Marks the ping in flight as finished, whether it completed, failed or
+     * could not be submitted.
+     */
+    public void endPing() {
+        ping.set(NO_PING);
+    }
+
+    /**
+     * Gets the sequence number of the last session event of the game server
+     * that was applied. A batch of events is applied while holding the lock
+     * of this object.
+     *
+     * @return The last applied sequence number, or NO_SEQUENCE_NUMBER if no
+     * events were applied since the game server registered.
+     */
+    public synchronized long getLastSequenceNumber() {
+        return lastSequenceNumber;
+    }
+
+    /**
+     * Sets the sequence number of the last session event of the game server
+     * that was applied. A batch of events is applied while holding the lock
+     * of this object.
+     *
+     * @param lastSequenceNumber The last applied sequence number.
+     */
+    public synchronized void setLastSequenceNumber(long lastSequenceNumber) {
+        this.lastSequenceNumber = lastSequenceNumber;
+    }
+
+}
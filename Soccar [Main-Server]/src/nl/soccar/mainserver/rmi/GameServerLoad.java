@@ -0,0 +1,90 @@
+package nl.soccar.mainserver.rmi;
+
+/**
+ * A GameServerLoad is the last known load of a game server. The available
+ * memory is reported by the game server during the periodic ping; the amount
+ * of sessions and players is known by the main server itself.
+ *
+ * @author PTS34A
+ */
+public final class GameServerLoad {
+
+    private final long availableMemory; // in bytes
+    private final int sessionCount;
+    private final int playerCount;
+    private final long reported; // in milliseconds
+
+    /**
+     * Constructor used for instantiation of a GameServerLoad object.
+     *
+     * @param availableMemory The amount of memory that is available for the
+     * Java Virtual Machine of the game server, in bytes.
+     * @param sessionCount The amount of sessions on the game server.
+     * @param playerCount The amount of players in the sessions on the game
+     * server.
+     * @param reported The time in milliseconds at which the available memory
+     * was reported.
+     */
+    public GameServerLoad(long availableMemory, int sessionCount, int playerCount, long reported) {
+        this.availableMemory = availableMemory;
+        this.sessionCount = sessionCount;
+        this.playerCount = playerCount;
+        this.reported = reported;
+    }
+
+    /**
+     * Gets the amount of memory that is available for the Java Virtual Machine
+     * of the game server.
+     *
+     * @return The available memory in bytes.
+     */
+    public long getAvailableMemory() {
+        return availableMemory;
+    }
+
+    /**
+     * Gets the amount of sessions on the game server.
+     *
+     * @return The amount of sessions.
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Gets the amount of players in the sessions on the game server.
+     *
+     * @return The amount of players.
+     */
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Gets the time at which the available memory was reported.
+     *
+     * @return The time of the report in milliseconds.
+     */
+    public long getReported() {
+        return reported;
+    }
+
+    /**
+     * Creates a copy of this load with the given amount of sessions and
+     * players.
+     *
+     * @param sessionCount The amount of sessions on the game server.
+     * @param playerCount The amount of players on the game server.
+     * @return The updated load.
+     */
+    public GameServerLoad withCounts(int sessionCount, int playerCount) {
+        return new GameServerLoad(availableMemory, sessionCount, playerCount, reported);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GameServerLoad[memory=%d, sessions=%d, players=%d, reported=%d]",
+                availableMemory, sessionCount, playerCount, reported);
+    }
+
+}
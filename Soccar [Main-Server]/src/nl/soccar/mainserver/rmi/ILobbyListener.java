@@ -0,0 +1,30 @@
+package nl.soccar.mainserver.rmi;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+/**
+ * Remote callback that is implemented by clients that want to be notified of
+ * changes to the lobby instead of polling for them.
+ *
+ * Clients implement this interface, so it has to move to the Soccar library
+ * together with LobbyDelta before they can register a callback. Until then it
+ * is only implemented within the Main server.
+ *
+ * @author PTS34A
+ */
+public interface ILobbyListener extends Remote {
+
+    /**
+     * Notifies the client that the lobby changed. The first notification after
+     * registration is a full resync; later notifications only contain the
+     * sessions that changed since the previous notification. Changes that
+     * happen in quick succession are combined into a single notification.
+     *
+     * @param delta The changes to the lobby.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    void lobbyChanged(LobbyDelta delta) throws RemoteException;
+
+}
@@ -0,0 +1,139 @@
+package nl.soccar.mainserver.rmi;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import nl.soccar.library.SessionData;
+
+/**
+ * A LobbyDelta describes how the lobby changed since a version that a client
+ * has seen before. It is either unchanged, a list of added, modified and
+ * removed sessions, or a full resync that contains all sessions when the
+ * client's version is too old to be caught up with changes.
+ *
+ * Clients need this class to deserialize a LobbyDelta, so it has to move to
+ * the Soccar library before the lobby changes can be requested remotely.
+ * Until then it is only used within the Main server.
+ *
+ * @author PTS34A
+ */
+public final class LobbyDelta implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long version;
+    private final boolean fullResync;
+    private final List<SessionData> added;
+    private final List<SessionData> modified;
+    private final List<String> removed;
+
+    /**
+     * Constructor used for instantiation of a LobbyDelta object.
+     *
+     * @param version The version of the lobby after the changes are applied.
+     * @param fullResync True if the added sessions are all sessions in the
+     * lobby and the client must discard the sessions it knows.
+     * @param added The sessions that were added or replaced.
+     * @param modified The sessions whose host or occupancy changed.
+     * @param removed The room names of the sessions that were removed.
+     */
+    private LobbyDelta(long version, boolean fullResync, List<SessionData> added, List<SessionData> modified, List<String> removed) {
+        this.version = version;
+        this.fullResync = fullResync;
+        this.added = added;
+        this.modified = modified;
+        this.removed = removed;
+    }
+
+    /**
+     * Creates a delta for a client that is up to date.
+     *
+     * @param version The current version of the lobby.
+     * @return The unchanged delta.
+     */
+    public static LobbyDelta unchanged(long version) {
+        return new LobbyDelta(version, false, Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Creates a delta that replaces all sessions the client knows.
+     *
+     * @param snapshot The snapshot of the lobby.
+     * @return The full resync delta.
+     */
+    public static LobbyDelta fullResync(LobbySnapshot snapshot) {
+        return new LobbyDelta(snapshot.getVersion(), true, new ArrayList<>(snapshot.getSessions()), Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Creates a delta that contains the changes since the client's version.
+     *
+     * @param version The version of the lobby after the changes are applied.
+     * @param added The sessions that were added or replaced.
+     * @param modified The sessions whose host or occupancy changed.
+     * @param removed The room names of the sessions that were removed.
+     * @return The delta.
+     */
+    public static LobbyDelta changes(long version, List<SessionData> added, List<SessionData> modified, List<String> removed) {
+        return new LobbyDelta(version, false, added, modified, removed);
+    }
+
+    /**
+     * Gets the version of the lobby after the changes are applied. The client
+     * passes this version when it asks for the next delta.
+     *
+     * @return The version of the lobby.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Checks if the client must discard the sessions it knows and replace
+     * them with the added sessions.
+     *
+     * @return True if this is a full resync.
+     */
+    public boolean isFullResync() {
+        return fullResync;
+    }
+
+    /**
+     * Checks if the lobby did not change since the client's version.
+     *
+     * @return True if there are no changes.
+     */
+    public boolean isUnchanged() {
+        return !fullResync && added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+    }
+
+    /**
+     * Gets the sessions that were added, or all sessions in case of a full
+     * resync. A session that the client already knows must be replaced.
+     *
+     * @return The added sessions.
+     */
+    public List<SessionData> getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the sessions whose host or occupancy changed.
+     *
+     * @return The modified sessions.
+     */
+    public List<SessionData> getModified() {
+        return modified;
+    }
+
+    /**
+     * Gets the room names of the sessions that were removed.
+     *
+     * @return The removed room names.
+     */
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+}
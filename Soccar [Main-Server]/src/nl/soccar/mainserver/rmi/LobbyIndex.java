@@ -0,0 +1,162 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import nl.soccar.library.SessionData;
+
+/**
+ * A LobbyIndex keeps the sessions of a single lobby snapshot sorted in every
+ * LobbySortOrder, so lobby queries can walk the sessions in the requested
+ * order and stop as soon as a page is full, and room name prefixes are found
+ * with a binary search instead of a scan over all sessions.
+ *
+ * The occupancy, capacity and password of every session are copied when the
+ * index is built, so the order of the index can not be broken by sessions
+ * that change afterwards.
+ *
+ * @author PTS34A
+ */
+final class LobbyIndex {
+
+    private static final Comparator<IndexEntry> BY_ROOM_NAME = Comparator.comparing(e -> e.roomName);
+
+    private final long version;
+    private final Map<LobbySortOrder, IndexEntry[]> sorted;
+
+    /**
+     * Constructor used for instantiation of a LobbyIndex object.
+     *
+     * @param version The version of the lobby snapshot.
+     * @param sessions The sessions of the lobby snapshot.
+     */
+    LobbyIndex(long version, List<SessionData> sessions) {
+        this.version = version;
+
+        IndexEntry[] entries = sessions.stream().map(IndexEntry::new).toArray(IndexEntry[]::new);
+
+        sorted = new EnumMap<>(LobbySortOrder.class);
+        for (LobbySortOrder sortOrder : LobbySortOrder.values()) {
+            IndexEntry[] copy = entries.clone();
+            Arrays.sort(copy, comparator(sortOrder));
+            sorted.put(sortOrder, copy);
+        }
+    }
+
+    /**
+     * Finds a page of the sessions that match the given query.
+     *
+     * @param query The query that is executed.
+     * @return The page of matching sessions.
+     */
+    LobbyPage query(LobbyQuery query) {
+        IndexEntry[] candidates;
+        String prefix = query.getNamePrefix();
+
+        if (prefix == null || prefix.isEmpty()) {
+            candidates = sorted.get(query.getSortOrder());
+        } else {
+            candidates = findPrefix(prefix);
+            if (query.getSortOrder() != LobbySortOrder.ROOM_NAME) {
+                Arrays.sort(candidates, comparator(query.getSortOrder()));
+            }
+        }
+
+        List<SessionData> page = new ArrayList<>(Math.min(query.getLimit(), candidates.length));
+        int skipped = 0;
+
+        for (IndexEntry entry : candidates) {
+            if (!entry.matches(query)) {
+                continue;
+            }
+
+            if (skipped < query.getOffset()) {
+                skipped++;
+            } else if (page.size() < query.getLimit()) {
+                page.add(entry.sessionData);
+            } else {
+                return new LobbyPage(version, page, true);
+            }
+        }
+
+        return new LobbyPage(version, page, false);
+    }
+
+    /**
+     * Finds the sessions whose room name starts with the given prefix.
+     *
+     * @param prefix The prefix of the room names.
+     * @return A new array of the matching sessions, sorted by room name.
+     */
+    private IndexEntry[] findPrefix(String prefix) {
+        IndexEntry[] byName = sorted.get(LobbySortOrder.ROOM_NAME);
+
+        int low = 0;
+        int high = byName.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (byName[middle].roomName.compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int end = low;
+        while (end < byName.length && byName[end].roomName.startsWith(prefix)) {
+            end++;
+        }
+
+        return Arrays.copyOfRange(byName, low, end);
+    }
+
+    /**
+     * Gets the comparator of the given sort order. Sessions with the same
+     * occupancy are sorted by room name.
+     *
+     * @param sortOrder The sort order.
+     * @return The comparator of the sort order.
+     */
+    private static Comparator<IndexEntry> comparator(LobbySortOrder sortOrder) {
+        switch (sortOrder) {
+            case OCCUPANCY_ASCENDING:
+                return Comparator.<IndexEntry>comparingInt(e -> e.occupancy).thenComparing(BY_ROOM_NAME);
+            case OCCUPANCY_DESCENDING:
+                return Comparator.<IndexEntry>comparingInt(e -> -e.occupancy).thenComparing(BY_ROOM_NAME);
+            default:
+                return BY_ROOM_NAME;
+        }
+    }
+
+    /**
+     * A session and the values it is filtered and sorted on.
+     */
+    private static final class IndexEntry {
+
+        private final SessionData sessionData;
+        private final String roomName;
+        private final int occupancy;
+        private final int capacity;
+        private final boolean hasPassword;
+
+        private IndexEntry(SessionData sessionData) {
+            this.sessionData = sessionData;
+
+            roomName = sessionData.getRoomName();
+            occupancy = sessionData.getOccupation();
+            capacity = sessionData.getCapacity();
+            hasPassword = sessionData.hasPassword();
+        }
+
+        private boolean matches(LobbyQuery query) {
+            Boolean password = query.getHasPassword();
+            return (password == null || password == hasPassword)
+                    && (!query.isNotFull() || occupancy < capacity);
+        }
+
+    }
+
+}
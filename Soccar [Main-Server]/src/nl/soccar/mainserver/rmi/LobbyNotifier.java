@@ -0,0 +1,376 @@
+package nl.soccar.mainserver.rmi;
+
+import java.rmi.RemoteException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import nl.soccar.mainserver.util.BoundedThreadPool;
+
+/**
+ * A LobbyNotifier pushes changes of the lobby to the clients that registered
+ * an ILobbyListener. Changes are never pushed on the thread that reports them:
+ * a change only schedules a fan-out on a separate scheduler thread, which
+ * hands the pushes to a bounded dispatcher, so game server events are not
+ * slowed down by the amount or the speed of the subscribers.
+ *
+ * Every subscriber has at most one pending push. Changes that arrive while a
+ * push is pending or running are coalesced into the next push, which contains
+ * all changes since the version the subscriber received last. Subscribers
+ * whose push fails, or whose push has been running for longer than the slow
+ * consumer timeout, are dropped.
+ *
+ * A push is a remote call that can block until the connection times out. The
+ * scheduler thread checks the running pushes periodically; a push that takes
+ * too long is abandoned and its dispatcher thread is counted as lost and
+ * replaced, so a few stalled clients can not take all dispatcher threads.
+ *
+ * @author PTS34A
+ */
+public class LobbyNotifier {
+
+    private static final Logger LOGGER = Logger.getLogger(LobbyNotifier.class.getSimpleName());
+
+    private static final long DRAIN_TIMEOUT = 5; // in seconds
+
+    private final SessionRegistry registry;
+    private final BoundedThreadPool dispatcher;
+    private final ScheduledExecutorService scheduler;
+    private final int dispatcherThreads;
+    private final long slowConsumerTimeout; // in milliseconds
+
+    private final Map<ILobbyListener, Subscriber> subscribers;
+    private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+
+    private final AtomicLong pushCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicInteger lostThreadCount = new AtomicInteger();
+
+    /**
+     * Constructor used for instantiation of a LobbyNotifier object.
+     *
+     * @param registry The registry whose changes are pushed.
+     * @param dispatcherThreads The maximum amount of pushes that run at the
+     * same time.
+     * @param queueCapacity The maximum amount of pushes that wait for a
+     * dispatcher thread.
+     * @param slowConsumerTimeout The time in milliseconds after which a
+     * subscriber whose push is still running is dropped and its push is
+     * abandoned.
+     */
+    public LobbyNotifier(SessionRegistry registry, int dispatcherThreads, int queueCapacity, long slowConsumerTimeout) {
+        this.registry = registry;
+        this.dispatcherThreads = dispatcherThreads;
+        this.slowConsumerTimeout = slowConsumerTimeout;
+
+        dispatcher = new BoundedThreadPool("lobby-notifier", dispatcherThreads, queueCapacity);
+        subscribers = new ConcurrentHashMap<>();
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "lobby-notifier-fan-out");
+            t.setDaemon(true);
+            return t;
+        });
+
+        long checkInterval = Math.max(1, slowConsumerTimeout / 2);
+        scheduler.scheduleWithFixedDelay(this::dropSlowConsumers, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Registers a listener that is notified of changes to the lobby. The
+     * listener immediately receives all sessions.
+     *
+     * @param listener The listener that is registered.
+     */
+    public void subscribe(ILobbyListener listener) {
+        Subscriber subscriber = new Subscriber(listener);
+        if (subscribers.putIfAbsent(listener, subscriber) == null) {
+            dispatch(subscriber);
+        }
+    }
+
+    /**
+     * Deregisters a listener so it is no longer notified.
+     *
+     * @param listener The listener that is deregistered.
+     */
+    public void unsubscribe(ILobbyListener listener) {
+        subscribers.remove(listener);
+    }
+
+    /**
+     * Notifies all subscribers that the lobby changed. This method returns
+     * immediately; the fan-out runs on the scheduler thread and the pushes
+     * are done by the dispatcher.
+     */
+    public void notifyChanged() {
+        if (subscribers.isEmpty() || !fanOutScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            scheduler.execute(this::fanOut);
+        } catch (RejectedExecutionException e) {
+            fanOutScheduled.set(false);
+            LOGGER.log(Level.FINE, "Lobby changes are not pushed because the notifier is closed.", e);
+        }
+    }
+
+    /**
+     * Stops the dispatcher and drops all subscribers. Pushes that are still
+     * running get a short time to finish.
+     */
+    public void close() {
+        subscribers.clear();
+        scheduler.shutdownNow();
+        dispatcher.shutdown();
+
+        try {
+            if (!dispatcher.awaitTermination(DRAIN_TIMEOUT, TimeUnit.SECONDS)) {
+                dispatcher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            dispatcher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        LOGGER.log(Level.INFO, "Lobby notifier closed: {0}", this);
+    }
+
+    /**
+     * Gets the amount of registered subscribers.
+     *
+     * @return The amount of subscribers.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Gets the amount of pushes that were delivered to subscribers.
+     *
+     * @return The amount of pushes.
+     */
+    public long getPushCount() {
+        return pushCount.get();
+    }
+
+    /**
+     * Gets the amount of subscribers that were dropped because their push
+     * failed or took too long.
+     *
+     * @return The amount of dropped subscribers.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Gets the amount of dispatcher threads that are still blocked in a push
+     * that was abandoned.
+     *
+     * @return The amount of lost dispatcher threads.
+     */
+    public int getLostThreadCount() {
+        return lostThreadCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LobbyNotifier[subscribers=%d, pushes=%d, dropped=%d, lostThreads=%d, dispatcher=%s]",
+                getSubscriberCount(), getPushCount(), getDroppedCount(), getLostThreadCount(), dispatcher);
+    }
+
+    /**
+     * Schedules a push for every subscriber and drops the subscribers whose
+     * push has been running for too long.
+     */
+    private void fanOut() {
+        fanOutScheduled.set(false);
+
+        long now = System.currentTimeMillis();
+        subscribers.values().forEach(subscriber -> {
+            if (!abandonIfSlow(subscriber, now)) {
+                dispatch(subscriber);
+            }
+        });
+    }
+
+    /**
+     * Drops the subscribers whose push has been running for too long, even if
+     * the lobby does not change.
+     */
+    private void dropSlowConsumers() {
+        long now = System.currentTimeMillis();
+        subscribers.values().forEach(subscriber -> abandonIfSlow(subscriber, now));
+    }
+
+    /**
+     * Drops the given subscriber and abandons its push if the push has been
+     * running for longer than the slow consumer timeout. The dispatcher thread
+     * that runs the push is interrupted and, up to the configured amount of
+     * dispatcher threads, replaced by a new thread until the push returns.
+     *
+     * @param subscriber The subscriber that is checked.
+     * @param now The current time in milliseconds.
+     * @return True if the subscriber was dropped.
+     */
+    private boolean abandonIfSlow(Subscriber subscriber, long now) {
+        long started = subscriber.pushStarted;
+        if (started == 0 || now - started <= slowConsumerTimeout) {
+            return false;
+        }
+
+        drop(subscriber, "its push took longer than " + slowConsumerTimeout + " ms", null);
+
+        synchronized (subscriber) {
+            Thread pushThread = subscriber.pushThread;
+            if (pushThread != null) {
+                subscriber.pushThread = null;
+                if (lostThreadCount.incrementAndGet() <= dispatcherThreads) {
+                    resizeDispatcher(1);
+                }
+                pushThread.interrupt();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Changes the amount of dispatcher threads by the given amount.
+     *
+     * @param delta The amount of threads that are added, or removed if
+     * negative.
+     */
+    private synchronized void resizeDispatcher(int delta) {
+        int size = dispatcher.getCorePoolSize() + delta;
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Schedules a push for the given subscriber, unless a push is already
+     * pending or running, in which case the change is picked up afterwards.
+     *
+     * @param subscriber The subscriber that needs to be notified.
+     */
+    private void dispatch(Subscriber subscriber) {
+        subscriber.dirty = true;
+        if (!subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            dispatcher.execute(() -> push(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Pushes all changes since the version the subscriber received last.
+     *
+     * @param subscriber The subscriber that is notified.
+     */
+    private void push(Subscriber subscriber) {
+        if (subscribers.get(subscriber.listener) != subscriber) {
+            return;
+        }
+
+        subscriber.dirty = false;
+        synchronized (subscriber) {
+            subscriber.pushThread = Thread.currentThread();
+        }
+        subscriber.pushStarted = System.currentTimeMillis();
+
+        try {
+            LobbyDelta delta = registry.getChanges(subscriber.version);
+            if (!delta.isUnchanged()) {
+                subscriber.listener.lobbyChanged(delta);
+                pushCount.incrementAndGet();
+            }
+
+            subscriber.version = delta.getVersion();
+        } catch (RemoteException | RuntimeException e) {
+            drop(subscriber, "its push failed", e);
+            return;
+        } finally {
+            finishPush(subscriber);
+        }
+
+        if (subscriber.dirty) {
+            dispatch(subscriber);
+        }
+    }
+
+    /**
+     * Marks the push of the given subscriber as finished. If the push was
+     * abandoned in the meantime, the thread that replaced this thread is
+     * removed again and the interrupt of the abandonment is cleared.
+     *
+     * @param subscriber The subscriber whose push finished.
+     */
+    private void finishPush(Subscriber subscriber) {
+        subscriber.pushStarted = 0;
+        subscriber.scheduled.set(false);
+
+        synchronized (subscriber) {
+            if (subscriber.pushThread != null) {
+                subscriber.pushThread = null;
+                return;
+            }
+        }
+
+        if (lostThreadCount.getAndDecrement() <= dispatcherThreads) {
+            resizeDispatcher(-1);
+        }
+        Thread.interrupted();
+    }
+
+    /**
+     * Removes a subscriber that can not keep up or can not be reached.
+     *
+     * @param subscriber The subscriber that is dropped.
+     * @param reason The reason the subscriber is dropped.
+     * @param e The error that occurred, or null.
+     */
+    private void drop(Subscriber subscriber, String reason, Exception e) {
+        if (subscribers.remove(subscriber.listener, subscriber)) {
+            droppedCount.incrementAndGet();
+            LOGGER.log(Level.WARNING, "A lobby listener is dropped because " + reason + ".", e);
+        }
+    }
+
+    /**
+     * A registered listener and the state of its pushes.
+     */
+    private static final class Subscriber {
+
+        private final ILobbyListener listener;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private volatile boolean dirty;
+        private volatile long version = -1;
+        private volatile long pushStarted; // in milliseconds, 0 when idle
+        private volatile Thread pushThread; // null when idle or abandoned, guarded by this
+
+        private Subscriber(ILobbyListener listener) {
+            this.listener = listener;
+        }
+
+    }
+
+}
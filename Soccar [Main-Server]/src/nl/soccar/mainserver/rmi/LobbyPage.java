@@ -0,0 +1,62 @@
+package nl.soccar.mainserver.rmi;
+
+import java.io.Serializable;
+import java.util.List;
+import nl.soccar.library.SessionData;
+
+/**
+ * A LobbyPage is the result of a LobbyQuery: a single page of the sessions
+ * that match the query. Like LobbyQuery, it is only used within the Main
+ * server until it is moved to the Soccar library.
+ *
+ * @author PTS34A
+ */
+public final class LobbyPage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long version;
+    private final List<SessionData> sessions;
+    private final boolean hasMore;
+
+    /**
+     * Constructor used for instantiation of a LobbyPage object.
+     *
+     * @param version The version of the lobby the page is taken from.
+     * @param sessions The sessions on the page.
+     * @param hasMore True if more sessions match the query after this page.
+     */
+    public LobbyPage(long version, List<SessionData> sessions, boolean hasMore) {
+        this.version = version;
+        this.sessions = sessions;
+        this.hasMore = hasMore;
+    }
+
+    /**
+     * Gets the version of the lobby the page is taken from.
+     *
+     * @return The version of the lobby.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the sessions on the page.
+     *
+     * @return The sessions on the page.
+     */
+    public List<SessionData> getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Checks if more sessions match the query after this page.
+     *
+     * @return True if there is a next page.
+     */
+    public boolean hasMore() {
+        return hasMore;
+    }
+
+}
@@ -0,0 +1,121 @@
+package nl.soccar.mainserver.rmi;
+
+import java.io.Serializable;
+
+/**
+ * A LobbyQuery describes which sessions of the lobby a client wants to see,
+ * in which order and which page of the result.
+ *
+ * LobbyQuery, LobbySortOrder and LobbyPage have to move to the Soccar library
+ * before clients can query the lobby remotely. Until then they are only used
+ * within the Main server.
+ *
+ * @author PTS34A
+ */
+public final class LobbyQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum amount of sessions that are returned in a single page.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private final Boolean hasPassword;
+    private final boolean notFull;
+    private final String namePrefix;
+    private final LobbySortOrder sortOrder;
+    private final int offset;
+    private final int limit;
+
+    /**
+     * Constructor used for instantiation of a LobbyQuery object.
+     *
+     * @param hasPassword True to only find sessions with a password, false to
+     * only find sessions without a password, or null to find both.
+     * @param notFull True to only find sessions whose occupancy is below their
+     * capacity.
+     * @param namePrefix The prefix the room name must start with, or null to
+     * find all room names.
+     * @param sortOrder The order of the found sessions.
+     * @param offset The amount of found sessions that are skipped.
+     * @param limit The maximum amount of sessions that are returned, which is
+     * limited to MAX_LIMIT.
+     */
+    public LobbyQuery(Boolean hasPassword, boolean notFull, String namePrefix, LobbySortOrder sortOrder, int offset, int limit) {
+        this.hasPassword = hasPassword;
+        this.notFull = notFull;
+        this.namePrefix = namePrefix;
+        this.sortOrder = sortOrder == null ? LobbySortOrder.ROOM_NAME : sortOrder;
+        this.offset = Math.max(0, offset);
+        this.limit = Math.min(Math.max(0, limit), MAX_LIMIT);
+    }
+
+    /**
+     * Replaces a deserialized query with a query that is created by the
+     * constructor. Deserialization skips the constructor, so without this a
+     * client could send a query without a sort order or with a negative or
+     * unbounded limit.
+     *
+     * @return The validated query.
+     */
+    private Object readResolve() {
+        return new LobbyQuery(hasPassword, notFull, namePrefix, sortOrder, offset, limit);
+    }
+
+    /**
+     * Gets the password filter of the query.
+     *
+     * @return True or false to filter on the presence of a password, or null
+     * if the filter is not used.
+     */
+    public Boolean getHasPassword() {
+        return hasPassword;
+    }
+
+    /**
+     * Checks if only sessions that are not full are found.
+     *
+     * @return True if full sessions are excluded.
+     */
+    public boolean isNotFull() {
+        return notFull;
+    }
+
+    /**
+     * Gets the prefix the room name must start with.
+     *
+     * @return The room name prefix, or null if the filter is not used.
+     */
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    /**
+     * Gets the order of the found sessions.
+     *
+     * @return The sort order.
+     */
+    public LobbySortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    /**
+     * Gets the amount of found sessions that are skipped.
+     *
+     * @return The offset of the page.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the maximum amount of sessions that are returned.
+     *
+     * @return The size of the page.
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+}
@@ -0,0 +1,70 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Collections;
+import java.util.List;
+import nl.soccar.library.SessionData;
+
+/**
+ * A LobbySnapshot is an immutable list of all sessions at a certain version of
+ * the SessionRegistry. Snapshots are shared between all clients, so the list
+ * can not be modified. The indexes that are used for lobby queries are built
+ * the first time the snapshot is queried.
+ *
+ * @author PTS34A
+ */
+public final class LobbySnapshot {
+
+    private final long version;
+    private final List<SessionData> sessions;
+    private volatile LobbyIndex index;
+
+    /**
+     * Constructor used for instantiation of a LobbySnapshot object.
+     *
+     * @param version The version of the registry the snapshot is built from.
+     * @param sessions The sessions in the lobby.
+     */
+    public LobbySnapshot(long version, List<SessionData> sessions) {
+        this.version = version;
+        this.sessions = Collections.unmodifiableList(sessions);
+    }
+
+    /**
+     * Gets the version of the registry the snapshot is built from.
+     *
+     * @return The version of the snapshot.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the sessions in the lobby.
+     *
+     * @return An unmodifiable list of sessions.
+     */
+    public List<SessionData> getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Gets the query indexes of the snapshot, building them on first use.
+     *
+     * @return The indexes of the snapshot.
+     */
+    LobbyIndex getIndex() {
+        LobbyIndex current = index;
+        if (current == null) {
+            synchronized (this) {
+                current = index;
+                if (current == null) {
+                    current = new LobbyIndex(version, sessions);
+                    index = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+}
@@ -0,0 +1,16 @@
+package nl.soccar.mainserver.rmi;
+
+/**
+ * The orders in which the sessions of a lobby query can be sorted. Like
+ * LobbyQuery, it is only used within the Main server until it is moved to
+ * the Soccar library.
+ *
+ * @author PTS34A
+ */
+public enum LobbySortOrder {
+
+    ROOM_NAME,
+    OCCUPANCY_ASCENDING,
+    OCCUPANCY_DESCENDING
+
+}
@@ -7,16 +7,32 @@ import nl.soccar.library.enumeration.Duration;
 import nl.soccar.library.enumeration.MapType;
 import nl.soccar.mainserver.data.context.StatisticsMySqlContext;
 import nl.soccar.mainserver.data.context.UserMySqlContext;
+import nl.soccar.mainserver.data.contract.IStatisticsDataContract;
+import nl.soccar.mainserver.data.contract.IUserDataContract;
+import nl.soccar.mainserver.data.repository.ExecutionMode;
 import nl.soccar.mainserver.data.repository.StatisticsRepository;
 import nl.soccar.mainserver.data.repository.UserRepository;
+import nl.soccar.mainserver.util.BoundedThreadPool;
 import nl.soccar.mainserver.util.DatabaseUtilities;
 import nl.soccar.rmi.RmiConstants;
 import nl.soccar.rmi.interfaces.IGameServerForMainServer;
 
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.registry.Registry;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -33,12 +49,36 @@ public final class MainServerController {
 
     private static final Random RANDOM = new Random();
 
-    private static final int PING_INTERVAL = 10000; // in milliseconds
-    private final List<IGameServerForMainServer> gameServers;
-    private final Map<IGameServerForMainServer, List<SessionData>> sessions;
+    private static final String LOCATION_PROPERTIES = "mainserver.properties";
+
+    private static final long DEFAULT_PING_INTERVAL = 2000; // in milliseconds
+    private static final long DEFAULT_PING_TIMEOUT = 1500; // in milliseconds
+    private static final long DEFAULT_RMI_RESPONSE_TIMEOUT = 10000; // in milliseconds
+    private static final long DEFAULT_REPOSITORY_TIMEOUT = 10000; // in milliseconds
+    private static final String RMI_RESPONSE_TIMEOUT_PROPERTY = "sun.rmi.transport.tcp.responseTimeout";
+    private static final double DEFAULT_SUSPICION_THRESHOLD = 1.0;
+    private static final double DEFAULT_FAILURE_THRESHOLD = 8.0;
+    private static final int PING_THREADS = 10;
+    private static final int PING_QUEUE_CAPACITY = 1000;
+    private static final int DEFAULT_CHANGE_LOG_SIZE = 1000;
+    private static final int DEFAULT_NOTIFIER_THREADS = 4;
+    private static final int DEFAULT_NOTIFIER_QUEUE_CAPACITY = 1000;
+    private static final long DEFAULT_SLOW_CONSUMER_TIMEOUT = 5000; // in milliseconds
+    private static final String DEFAULT_PLACEMENT_STRATEGY = "MOST_MEMORY";
+    private static final long DEFAULT_RESERVATION_TIMEOUT = 30000; // in milliseconds
+
+    private final Map<IGameServerForMainServer, GameServerInfo> gameServers;
+    private final FailureDetector failureDetector;
+    private final SessionRegistry sessions;
+    private final LobbyNotifier lobbyNotifier;
+    private final SessionPlacer placer;
     private final UserRepository userRepository;
     private final StatisticsRepository statisticsRepository;
-    private Timer timer;
+    private final Properties properties;
+    private final ScheduledExecutorService pingScheduler;
+    private final BoundedThreadPool pingPool;
+    private final long pingInterval; // in milliseconds
+    private final long pingTimeout; // in milliseconds
     private Registry registry;
     private MainServerForClient mainServerForClient;
     private MainServerForGameServer mainServerForGameServer;
@@ -48,16 +88,11 @@ public final class MainServerController {
      * database connection is initialized, the sessions collection, user
      * repository and statistics repository are being instantiated, the network
      * communication ports are being registered and stub-objects are created and
-     * bound for RMI network communication.
+     * bound for RMI network communication. Settings are read from the
+     * mainserver.properties file.
      */
     public MainServerController() {
-        DatabaseUtilities.init();
-
-        timer = new Timer();
-        gameServers = new ArrayList<>();
-        sessions = new HashMap<>();
-        userRepository = new UserRepository(new UserMySqlContext());
-        statisticsRepository = new StatisticsRepository(new StatisticsMySqlContext());
+        this(initialize(), new UserMySqlContext(), new StatisticsMySqlContext());
 
         try {
             mainServerForClient = new MainServerForClient(this, userRepository, statisticsRepository);
@@ -77,103 +112,398 @@ public final class MainServerController {
         continuouslyPingGameServers();
     }
 
+    /**
+     * Constructor used for instantiation of a MainServerController object
+     * with the given settings and persistency services. The stub-objects are
+     * not bound and the game servers are not pinged, so the controller can be
+     * tested without a network or a database.
+     *
+     * @param properties The settings of the main server.
+     * @param userContext The persistency service of the user repository.
+     * @param statisticsContext The persistency service of the statistics
+     * repository.
+     */
+    MainServerController(Properties properties, IUserDataContract userContext, IStatisticsDataContract statisticsContext) {
+        this.properties = properties;
+
+        ExecutionMode executionMode = ExecutionMode.valueOf(properties.getProperty("repository.executionMode", ExecutionMode.POOLED.name()));
+        long repositoryTimeout = Long.parseLong(properties.getProperty("repository.timeout", String.valueOf(DEFAULT_REPOSITORY_TIMEOUT)));
+
+        pingScheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "game-server-ping-scheduler"));
+        pingPool = new BoundedThreadPool("game-server-ping", PING_THREADS, PING_QUEUE_CAPACITY);
+        gameServers = new ConcurrentHashMap<>();
+        pingInterval = Long.parseLong(properties.getProperty("ping.interval", String.valueOf(DEFAULT_PING_INTERVAL)));
+        pingTimeout = Long.parseLong(properties.getProperty("ping.timeout", String.valueOf(DEFAULT_PING_TIMEOUT)));
+        failureDetector = new FailureDetector(
+                Double.parseDouble(properties.getProperty("failure.suspicionThreshold", String.valueOf(DEFAULT_SUSPICION_THRESHOLD))),
+                Double.parseDouble(properties.getProperty("failure.failureThreshold", String.valueOf(DEFAULT_FAILURE_THRESHOLD))));
+        sessions = new SessionRegistry(Integer.parseInt(properties.getProperty("lobby.changeLogSize", String.valueOf(DEFAULT_CHANGE_LOG_SIZE))));
+        lobbyNotifier = new LobbyNotifier(sessions,
+                Integer.parseInt(properties.getProperty("lobby.notifierThreads", String.valueOf(DEFAULT_NOTIFIER_THREADS))),
+                Integer.parseInt(properties.getProperty("lobby.notifierQueueCapacity", String.valueOf(DEFAULT_NOTIFIER_QUEUE_CAPACITY))),
+                Long.parseLong(properties.getProperty("lobby.slowConsumerTimeout", String.valueOf(DEFAULT_SLOW_CONSUMER_TIMEOUT))));
+        placer = new SessionPlacer(PlacementStrategy.forName(properties.getProperty("placement.strategy", DEFAULT_PLACEMENT_STRATEGY)),
+                Long.parseLong(properties.getProperty("placement.reservationTimeout", String.valueOf(DEFAULT_RESERVATION_TIMEOUT))));
+        userRepository = new UserRepository(userContext, executionMode);
+        statisticsRepository = new StatisticsRepository(statisticsContext, executionMode);
+        userRepository.setTimeout(repositoryTimeout);
+        statisticsRepository.setTimeout(repositoryTimeout);
+    }
+
+    /**
+     * Initializes the database connection and loads the settings of the main
+     * server. The RMI response timeout is set before any remote call is made.
+     *
+     * @return The loaded settings.
+     */
+    private static Properties initialize() {
+        DatabaseUtilities.init();
+        Properties props = loadProperties();
+
+        // Remote calls to game servers and clients block until they respond; without a response timeout a peer that hangs holds the calling thread forever.
+        if (System.getProperty(RMI_RESPONSE_TIMEOUT_PROPERTY) == null) {
+            System.setProperty(RMI_RESPONSE_TIMEOUT_PROPERTY, props.getProperty("rmi.responseTimeout", String.valueOf(DEFAULT_RMI_RESPONSE_TIMEOUT)));
+        }
+
+        return props;
+    }
+
+    /**
+     * Loads the settings of the main server from the mainserver.properties
+     * file. Settings that are missing fall back to their default values.
+     *
+     * @return The loaded settings.
+     */
+    private static Properties loadProperties() {
+        Properties props = new Properties();
+
+        try (FileInputStream input = new FileInputStream(LOCATION_PROPERTIES)) {
+            props.load(input);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "An error occurred while loading the main server properties file, default settings are used.", e);
+        }
+
+        return props;
+    }
+
     /**
      * Continously pings all game servers to check if the RMI connection is
      * active.
      */
     public void continuouslyPingGameServers() {
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
+        pingScheduler.scheduleAtFixedRate(() -> {
+            try {
                 pingGameServers();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "An error occurred while pinging the game servers.", e);
             }
-        }, 0, PING_INTERVAL);
+        }, 0, pingInterval, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Pings all game servers to check if the RMI connection is active. A random
      * value is sent to the game servers for them to process with a pre-defined
      * formula. If the result of the formula is not correct, the connected game
-     * server is possibly rogue. If the result of the formula is not correct or
-     * there was no response at all, the game server is deregistered.
+     * server is possibly rogue and it is deregistered. A ping that fails or
+     * does not respond within the ping timeout is recorded as a miss; the
+     * failure detector decides from the ping history of every game server
+     * whether it is suspected or has failed, and failed game servers are
+     * deregistered. Game servers that respond correctly report their available
+     * memory, which is cached for session placement.
+     *
+     * All game servers are pinged at the same time on the ping pool, and the
+     * results are evaluated without holding any lock, so a game server that
+     * does not respond can not delay the other pings or the registration of
+     * game servers.
+     *
+     * A remote call can not be interrupted, so a ping that does not respond
+     * keeps running until the RMI response timeout ends it. A game server
+     * whose previous ping is still in flight is not pinged again; the failure
+     * detector keeps counting the time since its last response. A ping only
+     * counts as missed if it has been running for the ping timeout; a ping
+     * that is still waiting for a ping thread at the end of the round is
+     * cancelled and not held against its game server.
      */
     private void pingGameServers() {
-        synchronized (gameServers) {
-            List<IGameServerForMainServer> serversToRemove = new ArrayList<>();
-
-            gameServers.forEach(server -> {
-                try {
-                    int pingCalculationValue = RANDOM.nextInt(100);
-                    if (pingCalculationValue * RmiConstants.PING_CALCULATION_FACTOR != server.ping(pingCalculationValue)) {
-                        throw new RogueGameServerException("Error", "The connected game server did not return the correct result of the predefined ping formula.");
+        List<IGameServerForMainServer> serversToRemove = new ArrayList<>();
+        Map<GameServerInfo, Future<?>> pings = new HashMap<>();
+
+        for (GameServerInfo info : new ArrayList<>(gameServers.values())) {
+            if (!info.beginPing()) {
+                LOGGER.log(Level.FINE, "A game server is not pinged this round because its previous ping is still in flight.");
+                continue;
+            }
+
+            try {
+                pings.put(info, pingPool.submit(() -> {
+                    if (!info.startPing(System.currentTimeMillis())) {
+                        return null;
                     }
-                } catch (RemoteException e) {
-                    serversToRemove.add(server);
 
-                    LOGGER.log(Level.WARNING, "A game server is deregistered because it is no longer active.", e);
-                } catch (RogueGameServerException e) {
+                    try {
+                        return ping(info.getGameServer());
+                    } finally {
+                        info.endPing();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                info.endPing();
+                LOGGER.log(Level.WARNING, "A game server is not pinged this round because the ping pool is saturated.", e);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + pingTimeout;
+
+        for (Map.Entry<GameServerInfo, Future<?>> ping : pings.entrySet()) {
+            GameServerInfo info = ping.getKey();
+            IGameServerForMainServer server = info.getGameServer();
+
+            try {
+                if (!awaitPing(info, ping.getValue(), deadline)) {
+                    LOGGER.log(Level.WARNING, "A game server is not pinged this round because no ping thread was available in time.");
+                }
+            } catch (TimeoutException e) {
+                recordMissedPing(server);
+
+                LOGGER.log(Level.INFO, "A game server did not respond to its ping within {0} ms.", pingTimeout);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RogueGameServerException) {
                     serversToRemove.add(server);
 
-                    LOGGER.log(Level.WARNING, "A game server is deregisterd because it did not return the correct result of the predefined ping formula.", e);
+                    LOGGER.log(Level.WARNING, "A game server is deregisterd because it did not return the correct result of the predefined ping formula.", e.getCause());
+                } else {
+                    recordMissedPing(server);
+
+                    LOGGER.log(Level.INFO, "A game server could not be pinged.", e.getCause());
                 }
-            });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        serversToRemove.addAll(failureDetector.evaluate(getGameServerHealth(), System.currentTimeMillis()));
+        serversToRemove.forEach(this::deregisterGameServer);
+    }
+
+    /**
+     * Waits for a ping until the end of the round. A ping that started after
+     * the round began gets the full ping timeout from the moment it started;
+     * a ping that has not started at the end of the round is withdrawn.
+     *
+     * @param info The game server that is pinged.
+     * @param ping The ping that is awaited.
+     * @param deadline The end of the round in milliseconds.
+     * @return True if the ping completed, false if it was withdrawn.
+     * @throws InterruptedException Thrown when the wait is interrupted.
+     * @throws ExecutionException Thrown when the ping failed.
+     * @throws TimeoutException Thrown when the ping started but did not
+     * complete within the ping timeout.
+     */
+    private boolean awaitPing(GameServerInfo info, Future<?> ping, long deadline) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            ping.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            if (info.getPingStarted() == 0 && info.withdrawPing()) {
+                ping.cancel(false);
+                return false;
+            }
+
+            long started = info.getPingStarted();
+            ping.get(Math.max(0, started + pingTimeout - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            return true;
+        }
+    }
 
-            serversToRemove.stream().forEach(this::deregisterGameServer);
+    /**
+     * Records a ping that failed or did not respond in time.
+     *
+     * @param server The game server that missed its ping.
+     */
+    private void recordMissedPing(IGameServerForMainServer server) {
+        GameServerInfo info = gameServers.get(server);
+        if (info != null) {
+            info.getHealth().recordFailure();
         }
     }
 
     /**
-     * Stops the ping timer, unexports the RMI-stubs and closes the database
-     * connection.
+     * Pings a single game server, records the round trip time of the ping and
+     * asks the game server for its available memory.
+     *
+     * @param server The game server that is pinged.
+     * @return Nothing, the method is used as a Callable so it can throw.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of the ping.
+     * @throws RogueGameServerException Thrown when the game server did not
+     * return the correct result of the ping formula.
+     */
+    private Void ping(IGameServerForMainServer server) throws RemoteException, RogueGameServerException {
+        int pingCalculationValue = RANDOM.nextInt(100);
+
+        long start = System.nanoTime();
+        int result = server.ping(pingCalculationValue);
+        long pingTime = (System.nanoTime() - start) / 1_000_000;
+
+        if (pingCalculationValue * RmiConstants.PING_CALCULATION_FACTOR != result) {
+            throw new RogueGameServerException("Error", "The connected game server did not return the correct result of the predefined ping formula.");
+        }
+
+        GameServerInfo info = gameServers.get(server);
+        if (info == null) {
+            return null;
+        }
+
+        info.getHealth().recordPing(pingTime, System.currentTimeMillis());
+        info.setLoad(new GameServerLoad(server.getAvailableMemory(), sessions.getSessionCount(server), sessions.getPlayerCount(server), System.currentTimeMillis()));
+
+        return null;
+    }
+
+    /**
+     * Stops the pings, unexports the RMI-stubs, stops the lobby
+     * notifications, drains the repository thread pools, writes all buffered
+     * statistics and closes the database connection.
      */
     public void close() {
-        timer.cancel();
-        timer.purge();
-        timer = null;
+        pingScheduler.shutdownNow();
+        pingPool.shutdownNow();
+        LOGGER.log(Level.INFO, "Game server failure detection: {0}", failureDetector);
 
-        mainServerForClient.close();
-        mainServerForGameServer.close();
+        if (mainServerForClient != null) {
+            mainServerForClient.close();
+        }
+        if (mainServerForGameServer != null) {
+            mainServerForGameServer.close();
+        }
+        lobbyNotifier.close();
+        userRepository.close();
+        statisticsRepository.close();
         DatabaseUtilities.close();
     }
 
     /**
-     * Notifies the Main server when a new game server is registered.
+     * Notifies the Main server when a new game server is registered. Game
+     * servers are identified by their remote stub, whose equality is based on
+     * the remote object it refers to. The game server and its (empty) session
+     * index are added in a single atomic step.
      *
      * @param gameServer The game server that is registered at the Main server.
      */
     public void registerGameServer(IGameServerForMainServer gameServer) {
-        synchronized (gameServers) {
-            if (gameServers.contains(gameServer)) {
-                return;
-            }
+        AtomicBoolean registered = new AtomicBoolean();
 
-            gameServers.add(gameServer);
-        }
+        gameServers.computeIfAbsent(gameServer, server -> {
+            sessions.addServer(server);
+            registered.set(true);
+            return new GameServerInfo(server, pingInterval, System.currentTimeMillis());
+        });
 
-        List<SessionData> list = new ArrayList<>();
-        synchronized (sessions) {
-            sessions.put(gameServer, list);
+        if (registered.get()) {
+            LOGGER.info("Game server registered.");
         }
-
-        LOGGER.info("Game server registered.");
     }
 
     /**
-     * Notifies the Main server when a game server is deregistered.
+     * Notifies the Main server when a game server is deregistered. The game
+     * server and all of its sessions are removed in a single atomic step.
      *
      * @param gameServer The game server that is deregistered at the Main
      * server.
      */
     public void deregisterGameServer(IGameServerForMainServer gameServer) {
-        synchronized (gameServers) {
-            gameServers.remove(gameServer);
+        AtomicReference<Collection<SessionData>> removed = new AtomicReference<>();
+
+        gameServers.computeIfPresent(gameServer, (server, info) -> {
+            removed.set(sessions.removeServer(server));
+            return null;
+        });
+
+        if (removed.get() == null) {
+            return;
         }
 
-        synchronized (sessions) {
-            sessions.remove(gameServer);
+        if (!removed.get().isEmpty()) {
+            lobbyNotifier.notifyChanged();
         }
 
-        LOGGER.info("Game server deregistered.");
+        LOGGER.log(Level.INFO, "Game server deregistered, {0} sessions removed.", removed.get().size());
+    }
+
+    /**
+     * Replaces the sessions of a game server with the full list of sessions it
+     * hosts. A game server calls this method when it (re)registers, so the
+     * rooms it still hosts after it was dropped reappear in the lobby in a
+     * single call. A game server that is not registered yet is registered
+     * first.
+     *
+     * The sequence of session events is restarted, so the next batch of
+     * events is applied from its first event, also after a batch stopped at a
+     * missing event.
+     *
+     * @param gameServer The game server whose sessions are synchronized.
+     * @param sessionData All sessions that are hosted on the game server.
+     */
+    public void synchronizeSessions(IGameServerForMainServer gameServer, List<SessionData> sessionData) {
+        synchronizeSessions(gameServer, sessionData, GameServerInfo.NO_SEQUENCE_NUMBER);
+    }
+
+    /**
+     * Replaces the sessions of a game server with the full list of sessions it
+     * hosts, and continues its sequence of session events after the given
+     * sequence number. A game server passes the sequence number of the last
+     * event that is included in the sessions, so events that are resubmitted
+     * after the synchronization are not applied twice and the next event is
+     * applied even if a batch stopped at a missing event.
+     *
+     * @param gameServer The game server whose sessions are synchronized.
+     * @param sessionData All sessions that are hosted on the game server.
+     * @param sequenceNumber The sequence number of the last event that is
+     * included in the sessions, or -1 to restart the sequence.
+     */
+    public void synchronizeSessions(IGameServerForMainServer gameServer, List<SessionData> sessionData, long sequenceNumber) {
+        registerGameServer(gameServer);
+
+        GameServerInfo info = gameServers.get(gameServer);
+        if (info == null) {
+            LOGGER.warning("Sessions are not synchronized because the game server was deregistered.");
+            return;
+        }
+
+        int changes;
+        synchronized (info) {
+            changes = sessions.synchronize(gameServer, sessionData);
+            info.setLastSequenceNumber(sequenceNumber);
+        }
+        sessionData.forEach(data -> placer.release(data.getRoomName()));
+
+        if (changes > 0) {
+            lobbyNotifier.notifyChanged();
+        }
+
+        LOGGER.log(Level.INFO, "Sessions of game server synchronized, {0} changes applied.", changes);
+    }
+
+    /**
+     * Checks if the sessions the Main server knows of a game server match the
+     * sessions the game server hosts. A game server calls this method
+     * periodically with the digest of its sessions, and synchronizes its
+     * sessions when the digests do not match.
+     *
+     * @param gameServer The game server whose sessions are verified.
+     * @param digest The digest of the sessions that are hosted on the game
+     * server, computed with SessionRegistry.digest.
+     * @return True if the sessions match, false if the game server needs to
+     * synchronize its sessions.
+     */
+    public boolean verifySessions(IGameServerForMainServer gameServer, long digest) {
+        boolean inSync = gameServers.containsKey(gameServer) && sessions.getDigest(gameServer) == digest;
+        if (!inSync) {
+            LOGGER.info("Sessions of game server are out of sync.");
+        }
+
+        return inSync;
     }
 
     /**
@@ -183,10 +513,13 @@ public final class MainServerController {
      * @param sessionData The data of the session that is created.
      */
     public void sessionCreated(IGameServerForMainServer gameServer, SessionData sessionData) {
-        synchronized (sessions) {
-            sessions.get(gameServer).add(sessionData);
+        if (!sessions.add(gameServer, sessionData)) {
+            LOGGER.log(Level.WARNING, "Session {0} is not added because the game server is not registered or the room name already exists.", sessionData.getRoomName());
+            return;
         }
 
+        placer.release(sessionData.getRoomName());
+        lobbyNotifier.notifyChanged();
         LOGGER.log(Level.INFO, "Session {0} added.", sessionData.getRoomName());
     }
 
@@ -197,17 +530,11 @@ public final class MainServerController {
      * @param roomName The name of the room that is terminated.
      */
     public void sessionDestroyed(IGameServerForMainServer gameServer, String roomName) {
-        synchronized (sessions) {
-            List<SessionData> data = sessions.get(gameServer);
-
-            Optional<SessionData> sessionData = data.stream().filter(s -> s.getRoomName().equals(roomName)).findFirst();
-            if (!sessionData.isPresent()) {
-                return;
-            }
-
-            data.remove(sessionData.get());
+        if (sessions.remove(gameServer, roomName) == null) {
+            return;
         }
 
+        lobbyNotifier.notifyChanged();
         LOGGER.log(Level.INFO, "Session {0} destroyed.", roomName);
     }
 
@@ -219,18 +546,11 @@ public final class MainServerController {
      * @param newHostName The name of the new host player.
      */
     public void hostChanged(IGameServerForMainServer gameServer, String roomName, String newHostName) {
-        synchronized (sessions) {
-            List<SessionData> data = sessions.get(gameServer);
-
-            Optional<SessionData> sessionData = data.stream().filter(s -> s.getRoomName().equals(roomName)).findFirst();
-            if (!sessionData.isPresent()) {
-                return;
-            }
-
-            SessionData s = sessionData.get();
-            s.setHostName(newHostName);
+        if (!sessions.changeHost(gameServer, roomName, newHostName)) {
+            return;
         }
 
+        lobbyNotifier.notifyChanged();
         LOGGER.log(Level.INFO, "Host of room {0} changed to {1}.", new Object[]{roomName, newHostName});
     }
 
@@ -242,21 +562,11 @@ public final class MainServerController {
      * @param roomName The name of the room whose occupancy is being increased.
      */
     public void increaseSessionOccupancy(IGameServerForMainServer gameServer, String roomName) {
-        synchronized (sessions) {
-            List<SessionData> data = sessions.get(gameServer);
-
-            Optional<SessionData> sessionData = data.stream().filter(s -> s.getRoomName().equals(roomName)).findFirst();
-            if (!sessionData.isPresent()) {
-                return;
-            }
-
-            SessionData s = sessionData.get();
-            int occupation = s.getOccupation();
-            if (s.getCapacity() > occupation) {
-                s.setOccupation(occupation + 1);
-            }
+        if (!sessions.increaseOccupancy(gameServer, roomName)) {
+            return;
         }
 
+        lobbyNotifier.notifyChanged();
         LOGGER.log(Level.INFO, "Occupancy for room {0} increased.", roomName);
     }
 
@@ -268,28 +578,111 @@ public final class MainServerController {
      * @param roomName The name of the room whose occupancy is being decreased.
      */
     public void decreaseSessionOccupancy(IGameServerForMainServer gameServer, String roomName) {
-        synchronized (sessions) {
-            List<SessionData> data = sessions.get(gameServer);
+        if (!sessions.decreaseOccupancy(gameServer, roomName)) {
+            return;
+        }
 
-            Optional<SessionData> sessionData = data.stream().filter(s -> s.getRoomName().equals(roomName)).findFirst();
-            if (!sessionData.isPresent()) {
-                return;
+        lobbyNotifier.notifyChanged();
+        LOGGER.log(Level.INFO, "Occupancy for room {0} decreased.", roomName);
+    }
+
+    /**
+     * Applies a batch of session events of a game server in the order of
+     * their sequence numbers. Events the Main server has already applied are
+     * ignored, so a game server can safely resubmit a batch when the call
+     * failed. When an event is missing, the events after it are not applied
+     * and the game server needs to resubmit them or synchronize its sessions,
+     * which restarts or advances the sequence.
+     * The first batch after a game server registered starts the sequence at
+     * its first event. Batches of different game servers are applied
+     * concurrently. A batch that contains an invalid event is rejected as a
+     * whole before any event is applied.
+     *
+     * @param gameServer The game server on which the events occurred.
+     * @param events The events, ordered by sequence number.
+     * @return The sequence number of the last applied event, or -1 if the game
+     * server is not registered or no event has been applied since it
+     * registered.
+     * @throws IllegalArgumentException Thrown when the batch is missing or
+     * contains an event that is missing or lacks the data of its type.
+     */
+    public long submitSessionEvents(IGameServerForMainServer gameServer, List<SessionEvent> events) {
+        if (events == null) {
+            throw new IllegalArgumentException("The batch of session events is missing.");
+        }
+
+        for (SessionEvent event : events) {
+            if (event == null || !event.isValid()) {
+                throw new IllegalArgumentException(event == null
+                        ? "The batch of session events contains a missing event."
+                        : String.format("Session event %d (%s) lacks the data of its type.", event.getSequenceNumber(), event.getType()));
             }
+        }
 
-            SessionData s = sessionData.get();
-            int occupation = s.getOccupation();
-            if (occupation > 0) {
-                s.setOccupation(occupation - 1);
+        GameServerInfo info = gameServers.get(gameServer);
+        if (info == null) {
+            LOGGER.warning("Session events are ignored because the game server is not registered.");
+            return GameServerInfo.NO_SEQUENCE_NUMBER;
+        }
+
+        synchronized (info) {
+            long last = info.getLastSequenceNumber();
+
+            for (SessionEvent event : events) {
+                long sequenceNumber = event.getSequenceNumber();
+                if (last != GameServerInfo.NO_SEQUENCE_NUMBER && sequenceNumber <= last) {
+                    continue;
+                }
+
+                if (last != GameServerInfo.NO_SEQUENCE_NUMBER && sequenceNumber != last + 1) {
+                    LOGGER.log(Level.WARNING, "Session events after {0} are missing, {1} is not applied.", new Object[]{last, sequenceNumber});
+                    break;
+                }
+
+                applySessionEvent(gameServer, event);
+                last = sequenceNumber;
             }
+
+            info.setLastSequenceNumber(last);
+            return last;
         }
+    }
 
-        LOGGER.log(Level.INFO, "Occupancy for room {0} decreased.", roomName);
+    /**
+     * Applies a single session event of a game server.
+     *
+     * @param gameServer The game server on which the event occurred.
+     * @param event The event that is applied.
+     */
+    private void applySessionEvent(IGameServerForMainServer gameServer, SessionEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+                sessionCreated(gameServer, event.getSessionData());
+                break;
+            case DESTROYED:
+                sessionDestroyed(gameServer, event.getRoomName());
+                break;
+            case HOST_CHANGED:
+                hostChanged(gameServer, event.getRoomName(), event.getHostName());
+                break;
+            case OCCUPANCY_INCREASED:
+                increaseSessionOccupancy(gameServer, event.getRoomName());
+                break;
+            case OCCUPANCY_DECREASED:
+                decreaseSessionOccupancy(gameServer, event.getRoomName());
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown session event type: " + event.getType());
+        }
     }
 
     /**
      * Creates a new game session on a remote Game server. The Game Server on
-     * which the session will be created is chosen based on the amount of free
-     * memory for the Java Virtual Machine.
+     * which the session will be created is chosen by the configured placement
+     * strategy, based on the load reported during the last ping and the
+     * sessions that were placed but not created yet. Game servers that are
+     * suspected to have failed are not chosen. No remote calls are made to
+     * choose the Game server.
      *
      * @param name The roomname of the session that is being created.
      * @param password The password of the session that is being created.
@@ -303,49 +696,131 @@ public final class MainServerController {
      * the remote call of this method.
      */
     public boolean createSession(String name, String password, String hostName, int capacity, Duration duration, MapType mapType, BallType ballType) throws RemoteException {
-        synchronized (sessions) {
-            for (List<SessionData> allSessions : this.sessions.values()) {
-                for (SessionData session : allSessions) {
-                    if (session.getRoomName().equals(name)) {
-                        LOGGER.log(Level.INFO, "Session ({0}) is not created because the room name already exists.", name);
+        if (sessions.containsRoomName(name)) {
+            LOGGER.log(Level.INFO, "Session ({0}) is not created because the room name already exists.", name);
 
-                        return false;
-                    }
-                }
-            }
+            return false;
         }
 
-        long maxAvailableMemory = Integer.MIN_VALUE;
-        IGameServerForMainServer server = null;
+        Map<IGameServerForMainServer, GameServerLoad> candidates = getGameServerLoads();
+        candidates.keySet().removeIf(gameServer -> {
+            GameServerInfo info = gameServers.get(gameServer);
+            return info == null || info.getHealth().isSuspected();
+        });
+
+        IGameServerForMainServer server = placer.reserve(name, candidates);
+        if (server == null) {
+            LOGGER.log(Level.INFO, "Session ({0}) is not created because no game server is available or the room is already being created.", name);
 
-        for (IGameServerForMainServer gameServer : gameServers) {
-            long availableMemory = gameServer.getAvailableMemory();
-            if (availableMemory > maxAvailableMemory) {
-                maxAvailableMemory = availableMemory;
-                server = gameServer;
+            return false;
+        }
+
+        boolean created = false;
+        try {
+            created = server.createSession(name, password, hostName, capacity, duration, mapType, ballType);
+        } finally {
+            if (!created) {
+                placer.release(name);
             }
         }
 
-        LOGGER.log(Level.INFO, "Session ({0}) created.", name);
+        LOGGER.log(Level.INFO, created ? "Session ({0}) created." : "Session ({0}) is not created by the game server.", name);
 
-        return server != null && server.createSession(name, password, hostName, capacity, duration, mapType, ballType);
+        return created;
     }
 
     /**
-     * Gets all running sessions.
+     * Gets the last known load of every registered game server. The available
+     * memory is the value reported during the last ping; the amount of
+     * sessions and players is the current amount known by the main server.
+     *
+     * @return The load of every game server.
+     */
+    public Map<IGameServerForMainServer, GameServerLoad> getGameServerLoads() {
+        Map<IGameServerForMainServer, GameServerLoad> result = new HashMap<>();
+        gameServers.forEach((server, info) -> result.put(server, info.getLoad().withCounts(sessions.getSessionCount(server), sessions.getPlayerCount(server))));
+        return result;
+    }
+
+    /**
+     * Gets the ping results of every registered game server.
+     *
+     * @return The health of every game server.
+     */
+    public Map<IGameServerForMainServer, GameServerHealth> getGameServerHealth() {
+        Map<IGameServerForMainServer, GameServerHealth> result = new HashMap<>();
+        gameServers.forEach((server, info) -> result.put(server, info.getHealth()));
+        return result;
+    }
+
+    /**
+     * Gets the failure detector that decides which game servers are suspected
+     * or have failed.
+     *
+     * @return The failure detector.
+     */
+    public FailureDetector getFailureDetector() {
+        return failureDetector;
+    }
+
+    /**
+     * Gets all running sessions. The list is taken from the latest lobby
+     * snapshot, which is shared between all callers and can not be modified.
      *
      * @return a collection of all running sessions.
      */
     public List<SessionData> getSessions() {
-        List<SessionData> list = new ArrayList<>();
+        return sessions.getSnapshot().getSessions();
+    }
 
-        synchronized (gameServers) {
-            synchronized (sessions) {
-                gameServers.stream().map(sessions::get).forEach(list::addAll);
-            }
+    /**
+     * Gets the changes to the running sessions since the given lobby version.
+     *
+     * @param lastVersion The lobby version the client has seen last, or a
+     * negative value if the client has not seen the lobby yet.
+     * @return The changes since the given version, or all sessions if the
+     * version is too old.
+     */
+    public LobbyDelta getSessionChanges(long lastVersion) {
+        return sessions.getChanges(lastVersion);
+    }
+
+    /**
+     * Finds a page of the running sessions that match the given query. The
+     * query is served from indexes of the latest lobby snapshot, which are
+     * only rebuilt after the sessions changed.
+     *
+     * @param query The filters, sort order and page of the query.
+     * @return The page of matching sessions.
+     * @throws IllegalArgumentException Thrown when the query is missing.
+     */
+    public LobbyPage querySessions(LobbyQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("The lobby query is missing.");
         }
 
-        return list;
+        return sessions.getSnapshot().getIndex().query(query);
+    }
+
+    /**
+     * Registers a client callback that is notified of changes to the running
+     * sessions.
+     *
+     * @param listener The callback of the client.
+     */
+    public void addLobbyListener(ILobbyListener listener) {
+        lobbyNotifier.subscribe(listener);
+
+        LOGGER.log(Level.INFO, "Lobby listener registered, {0} listeners.", lobbyNotifier.getSubscriberCount());
+    }
+
+    /**
+     * Deregisters a client callback so it is no longer notified.
+     *
+     * @param listener The callback of the client.
+     */
+    public void removeLobbyListener(ILobbyListener listener) {
+        lobbyNotifier.unsubscribe(listener);
     }
 
 }
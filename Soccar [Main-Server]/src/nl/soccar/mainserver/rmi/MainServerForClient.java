@@ -7,6 +7,8 @@ import nl.soccar.library.Statistics;
 import nl.soccar.library.enumeration.BallType;
 import nl.soccar.library.enumeration.Duration;
 import nl.soccar.library.enumeration.MapType;
+import nl.soccar.mainserver.data.model.LeaderboardCategory;
+import nl.soccar.mainserver.data.model.LeaderboardEntry;
 import nl.soccar.mainserver.data.repository.StatisticsRepository;
 import nl.soccar.mainserver.data.repository.UserRepository;
 import nl.soccar.rmi.interfaces.IClientAuthenticated;
@@ -40,7 +42,12 @@ public class MainServerForClient extends GeneralMainServer implements IClientUna
     // IClientUnauthenticated methods
     @Override
     public boolean add(String username, byte[] password) throws RemoteException {
-        return super.getUserRepository().add(username, password);
+        if (!super.getUserRepository().add(username, password)) {
+            return false;
+        }
+
+        super.getStatisticsRepository().addPlayer(username);
+        return true;
     }
 
     @Override
@@ -61,11 +68,98 @@ public class MainServerForClient extends GeneralMainServer implements IClientUna
         return super.getStatisticsRepository().getAllStatistics();
     }
 
+    /**
+     * Gets the best players in a leaderboard category, so clients do not need
+     * to download and sort the statistics of all players.
+     *
+     * This method is not part of the remote API yet. Clients can only call it
+     * once LeaderboardCategory and LeaderboardEntry are moved to the Soccar
+     * library and this method is declared in its IClientUnauthenticated
+     * interface.
+     *
+     * @param category The category by which the players are ranked.
+     * @param count The maximum amount of players that are returned, which is
+     * limited to 100.
+     * @return The best players, best first.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    List<LeaderboardEntry> getTopPlayers(LeaderboardCategory category, int count) throws RemoteException {
+        return super.getStatisticsRepository().getTopPlayers(category, count);
+    }
+
     @Override
     public List<SessionData> getAllSessions() throws RemoteException {
         return super.getController().getSessions();
     }
 
+    /**
+     * Gets the changes to the lobby since the version the client has seen
+     * last. When nothing changed, only the current version is returned; when
+     * the client's version is too old, all sessions are returned.
+     *
+     * This method is not part of the remote API yet. Clients can only call it
+     * once LobbyDelta is moved to the Soccar library and this method is
+     * declared in its IClientUnauthenticated interface.
+     *
+     * @param lastVersion The version of the last LobbyDelta the client
+     * received, or a negative value to receive all sessions.
+     * @return The changes to the lobby since the given version.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    LobbyDelta getSessionChanges(long lastVersion) throws RemoteException {
+        return super.getController().getSessionChanges(lastVersion);
+    }
+
+    /**
+     * Finds a page of the sessions that match the given filters, in the given
+     * order, so clients do not need to download and filter all sessions.
+     *
+     * This method is not part of the remote API yet. Clients can only call it
+     * once LobbyQuery, LobbySortOrder and LobbyPage are moved to the Soccar
+     * library and this method is declared in its IClientUnauthenticated
+     * interface.
+     *
+     * @param query The filters, sort order and page of the query.
+     * @return The page of matching sessions.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    LobbyPage querySessions(LobbyQuery query) throws RemoteException {
+        return super.getController().querySessions(query);
+    }
+
+    /**
+     * Registers a callback that is notified of changes to the lobby, so the
+     * client no longer needs to poll for them. The callback first receives all
+     * sessions, and is dropped when it can not be reached or does not keep up.
+     *
+     * This method is not part of the remote API yet. Clients can only call it
+     * once ILobbyListener is moved to the Soccar library and this method is
+     * declared in its IClientUnauthenticated interface.
+     *
+     * @param listener The exported callback of the client.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    void addLobbyListener(ILobbyListener listener) throws RemoteException {
+        super.getController().addLobbyListener(listener);
+    }
+
+    /**
+     * Deregisters a callback that was registered with addLobbyListener.
+     *
+     * Like addLobbyListener, this method is not part of the remote API yet.
+     *
+     * @param listener The exported callback of the client.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    void removeLobbyListener(ILobbyListener listener) throws RemoteException {
+        super.getController().removeLobbyListener(listener);
+    }
+
     @Override
     public boolean createSession(String name, String password, String hostName, int capacity, Duration duration, MapType mapType, BallType ballType) throws RemoteException {
         return super.getController().createSession(name, password, hostName, capacity, duration, mapType, ballType);
@@ -77,4 +171,25 @@ public class MainServerForClient extends GeneralMainServer implements IClientUna
         return super.getStatisticsRepository().getStatistics(username);
     }
 
+    /**
+     * Gets the rank of a player in a leaderboard category, together with the
+     * players that are ranked just above and below the player.
+     *
+     * Like getTopPlayers, this method is not part of the remote API yet. It
+     * has to be declared in the IClientAuthenticated interface of the Soccar
+     * library as well.
+     *
+     * @param username The username of the player.
+     * @param category The category by which the players are ranked.
+     * @param neighbours The maximum amount of players above and below the
+     * player that are returned, which is limited to 50.
+     * @return The player and its neighbours, best first, or an empty list if
+     * the player has no statistics.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    List<LeaderboardEntry> getPlayerRank(String username, LeaderboardCategory category, int neighbours) throws RemoteException {
+        return super.getStatisticsRepository().getPlayerRank(username, category, neighbours);
+    }
+
 }
@@ -1,7 +1,9 @@
 package nl.soccar.mainserver.rmi;
 
 import java.rmi.RemoteException;
+import java.util.List;
 import nl.soccar.library.SessionData;
+import nl.soccar.library.Statistics;
 import nl.soccar.library.enumeration.Privilege;
 import nl.soccar.mainserver.data.repository.StatisticsRepository;
 import nl.soccar.mainserver.data.repository.UserRepository;
@@ -67,6 +69,89 @@ public class MainServerForGameServer extends GeneralMainServer implements IMainS
         super.getController().decreaseSessionOccupancy(gameServer, roomName);
     }
 
+    /**
+     * Replaces the sessions the Main server knows of the game server with all
+     * sessions the game server hosts, in a single call. Game servers call this
+     * method when they (re)register.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param gameServer The game server whose sessions are synchronized.
+     * @param sessionData All sessions that are hosted on the game server.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void synchronizeSessions(IGameServerForMainServer gameServer, List<SessionData> sessionData) throws RemoteException {
+        super.getController().synchronizeSessions(gameServer, sessionData);
+    }
+
+    /**
+     * Replaces the sessions the Main server knows of the game server with all
+     * sessions the game server hosts, and continues its session events after
+     * the given sequence number. Game servers call this method to recover when
+     * submitSessionEvents reports that an event is missing.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param gameServer The game server whose sessions are synchronized.
+     * @param sessionData All sessions that are hosted on the game server.
+     * @param sequenceNumber The sequence number of the last event that is
+     * included in the sessions, or -1 to restart the sequence.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void synchronizeSessions(IGameServerForMainServer gameServer, List<SessionData> sessionData, long sequenceNumber) throws RemoteException {
+        super.getController().synchronizeSessions(gameServer, sessionData, sequenceNumber);
+    }
+
+    /**
+     * Checks if the sessions the Main server knows of the game server match
+     * the digest of the sessions the game server hosts. Game servers call this
+     * method periodically and call synchronizeSessions when it returns false.
+     *
+     * This method is not part of the remote API yet. Game servers can only
+     * call it once the digest function is moved to the Soccar library and this
+     * method is declared in its IMainServerForGameServer interface.
+     *
+     * @param gameServer The game server whose sessions are verified.
+     * @param digest The digest of the sessions that are hosted on the game
+     * server, computed with SessionRegistry.digest.
+     * @return True if the sessions match, false if the game server needs to
+     * synchronize its sessions.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    boolean verifySessions(IGameServerForMainServer gameServer, long digest) throws RemoteException {
+        return super.getController().verifySessions(gameServer, digest);
+    }
+
+    /**
+     * Submits a batch of session events in a single call, instead of a
+     * separate call for every created or destroyed session, host change and
+     * occupancy change. The events are applied in the order of their sequence
+     * numbers.
+     *
+     * This method is not part of the remote API yet. Game servers can only
+     * call it once SessionEvent and SessionEventType are moved to the Soccar
+     * library and this method is declared in its IMainServerForGameServer
+     * interface.
+     *
+     * @param gameServer The game server on which the events occurred.
+     * @param events The events, ordered by sequence number.
+     * @return The sequence number of the last applied event, or -1 if the game
+     * server is not registered or no event has been applied since it
+     * registered.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     * @throws IllegalArgumentException Thrown when the batch is missing or
+     * contains an event that is missing or lacks the data of its type.
+     */
+    long submitSessionEvents(IGameServerForMainServer gameServer, List<SessionEvent> events) throws RemoteException {
+        return super.getController().submitSessionEvents(gameServer, events);
+    }
+
     @Override
     public void addGoals(String username, int goals) throws RemoteException {
         super.getStatisticsRepository().addGoals(username, goals);
@@ -92,6 +177,144 @@ public class MainServerForGameServer extends GeneralMainServer implements IMainS
         super.getStatisticsRepository().incrementGamesPlayed(username);
     }
 
+    /**
+     * Submits the result of a finished match in a single call, instead of
+     * separate addGoals, addAssists and increment calls for every player. The
+     * statistics of all players are persisted in one transaction. The separate
+     * methods remain available for game servers that do not use this method.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param roomName The name of the room in which the match was played.
+     * @param playerStatistics The goals, assists and won, lost and played games
+     * every player gathered during the match.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void submitMatchResult(String roomName, List<Statistics> playerStatistics) throws RemoteException {
+        super.getStatisticsRepository().submitMatchResult(roomName, playerStatistics);
+    }
+
+    /**
+     * Submits the result of a finished match with a unique match id. A result
+     * that is submitted again with the same match id, for example when the
+     * game server retries after a timeout, is ignored.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param matchId The unique id of the match.
+     * @param roomName The name of the room in which the match was played.
+     * @param playerStatistics The goals, assists and won, lost and played games
+     * every player gathered during the match.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void submitMatchResult(String matchId, String roomName, List<Statistics> playerStatistics) throws RemoteException {
+        super.getStatisticsRepository().submitMatchResult(matchId, roomName, playerStatistics);
+    }
+
+    /**
+     * Adds goals to a player, unless an update with the same event id has been
+     * received before.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player.
+     * @param goals The amount of goals that need to be added to the player.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void addGoals(String eventId, String username, int goals) throws RemoteException {
+        super.getStatisticsRepository().addGoals(eventId, username, goals);
+    }
+
+    /**
+     * Adds assists to a player, unless an update with the same event id has
+     * been received before.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player.
+     * @param assists The amount of assists that need to be added to the player.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void addAssists(String eventId, String username, int assists) throws RemoteException {
+        super.getStatisticsRepository().addAssists(eventId, username, assists);
+    }
+
+    /**
+     * Increments the amount of games won by a player, unless an update with the
+     * same event id has been received before.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void incrementGamesWon(String eventId, String username) throws RemoteException {
+        super.getStatisticsRepository().incrementGamesWon(eventId, username);
+    }
+
+    /**
+     * Increments the amount of games lost by a player, unless an update with
+     * the same event id has been received before.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void incrementGamesLost(String eventId, String username) throws RemoteException {
+        super.getStatisticsRepository().incrementGamesLost(eventId, username);
+    }
+
+    /**
+     * Increments the amount of games played by a player, unless an update with
+     * the same event id has been received before.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param eventId The unique id of the update.
+     * @param username The username of the player.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public void incrementGamesPlayed(String eventId, String username) throws RemoteException {
+        super.getStatisticsRepository().incrementGamesPlayed(eventId, username);
+    }
+
+    /**
+     * Gets the statistics of multiple players in a single call, for example
+     * when a game server loads all players of a room.
+     *
+     * Game servers can only call this method remotely once it is declared in
+     * the IMainServerForGameServer interface of the Soccar library.
+     *
+     * @param usernames The usernames of the players whose statistics are
+     * requested.
+     * @return The statistics of the players that were found, or null if they
+     * could not be retrieved.
+     * @throws RemoteException Thrown when a communication error occurs during
+     * the remote call of this method.
+     */
+    public List<Statistics> getStatistics(List<String> usernames) throws RemoteException {
+        return super.getStatisticsRepository().getStatistics(usernames);
+    }
+
     @Override
     public Privilege getPrivilege(String username) throws RemoteException {
         return super.getUserRepository().getPrivilege(username);
@@ -0,0 +1,48 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Map;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A PlacementStrategy chooses the game server on which a new session is
+ * created, based on the load of the registered game servers.
+ *
+ * @author PTS34A
+ */
+public interface PlacementStrategy {
+
+    /**
+     * Chooses a game server for a new session. The loads include the sessions
+     * that were placed on the game servers but are not created yet.
+     *
+     * @param loads The load of every game server that can be chosen.
+     * @return The chosen game server, or null if there are no game servers.
+     */
+    IGameServerForMainServer choose(Map<IGameServerForMainServer, GameServerLoad> loads);
+
+    /**
+     * Creates the placement strategy with the given name.
+     *
+     * @param name The name of the strategy: MOST_MEMORY, LEAST_SESSIONS,
+     * LEAST_PLAYERS, WEIGHTED_SCORE or POWER_OF_TWO_CHOICES.
+     * @return The placement strategy.
+     * @throws IllegalArgumentException Thrown when the name is unknown.
+     */
+    static PlacementStrategy forName(String name) {
+        switch (name) {
+            case "MOST_MEMORY":
+                return new ComparingPlacementStrategy(ComparingPlacementStrategy.MOST_MEMORY);
+            case "LEAST_SESSIONS":
+                return new ComparingPlacementStrategy(ComparingPlacementStrategy.LEAST_SESSIONS);
+            case "LEAST_PLAYERS":
+                return new ComparingPlacementStrategy(ComparingPlacementStrategy.LEAST_PLAYERS);
+            case "WEIGHTED_SCORE":
+                return new WeightedScorePlacementStrategy();
+            case "POWER_OF_TWO_CHOICES":
+                return new PowerOfTwoChoicesPlacementStrategy(ComparingPlacementStrategy.LEAST_SESSIONS);
+            default:
+                throw new IllegalArgumentException("Unknown placement strategy: " + name);
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A PowerOfTwoChoicesPlacementStrategy picks two random game servers and
+ * chooses the least loaded one. Compared to always choosing the least loaded
+ * game server, bursts of sessions that are placed on the same stale loads are
+ * spread over the game servers instead of all landing on the same one.
+ *
+ * @author PTS34A
+ */
+public class PowerOfTwoChoicesPlacementStrategy implements PlacementStrategy {
+
+    private final Comparator<GameServerLoad> comparator;
+
+    /**
+     * Constructor used for instantiation of a
+     * PowerOfTwoChoicesPlacementStrategy object.
+     *
+     * @param comparator The comparator that orders loads from most to least
+     * preferred.
+     */
+    public PowerOfTwoChoicesPlacementStrategy(Comparator<GameServerLoad> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public IGameServerForMainServer choose(Map<IGameServerForMainServer, GameServerLoad> loads) {
+        List<IGameServerForMainServer> servers = new ArrayList<>(loads.keySet());
+        if (servers.size() < 2) {
+            return servers.isEmpty() ? null : servers.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(servers.size());
+        int second = random.nextInt(servers.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        IGameServerForMainServer a = servers.get(first);
+        IGameServerForMainServer b = servers.get(second);
+        return comparator.compare(loads.get(a), loads.get(b)) <= 0 ? a : b;
+    }
+
+}
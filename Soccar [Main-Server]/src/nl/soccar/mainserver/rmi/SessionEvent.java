@@ -0,0 +1,170 @@
+package nl.soccar.mainserver.rmi;
+
+import java.io.Serializable;
+import nl.soccar.library.SessionData;
+
+/**
+ * A SessionEvent describes a single change to a session on a game server.
+ * Game servers collect events for a short while and submit them in a single
+ * batch. Every event carries a sequence number that is increased by one for
+ * every event of the game server, so the Main server can apply the events in
+ * order, ignore events it has already applied and detect missing events.
+ *
+ * Game servers create the events, so SessionEvent and SessionEventType have
+ * to move to the Soccar library before events can be submitted remotely.
+ * Until then they are only used within the Main server.
+ *
+ * @author PTS34A
+ */
+public final class SessionEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long sequenceNumber;
+    private final SessionEventType type;
+    private final String roomName;
+    private final SessionData sessionData;
+    private final String hostName;
+
+    /**
+     * Constructor used for instantiation of a SessionEvent object.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param type The type of the event.
+     * @param roomName The room name of the session that changed.
+     * @param sessionData The data of a created session, or null.
+     * @param hostName The name of the new host player, or null.
+     */
+    private SessionEvent(long sequenceNumber, SessionEventType type, String roomName, SessionData sessionData, String hostName) {
+        this.sequenceNumber = sequenceNumber;
+        this.type = type;
+        this.roomName = roomName;
+        this.sessionData = sessionData;
+        this.hostName = hostName;
+    }
+
+    /**
+     * Creates an event for a session that is created.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param sessionData The data of the session that is created.
+     * @return The event.
+     */
+    public static SessionEvent created(long sequenceNumber, SessionData sessionData) {
+        return new SessionEvent(sequenceNumber, SessionEventType.CREATED, sessionData.getRoomName(), sessionData, null);
+    }
+
+    /**
+     * Creates an event for a session that is destroyed.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param roomName The room name of the session that is destroyed.
+     * @return The event.
+     */
+    public static SessionEvent destroyed(long sequenceNumber, String roomName) {
+        return new SessionEvent(sequenceNumber, SessionEventType.DESTROYED, roomName, null, null);
+    }
+
+    /**
+     * Creates an event for a session whose host player changed.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param roomName The room name of the session.
+     * @param hostName The name of the new host player.
+     * @return The event.
+     */
+    public static SessionEvent hostChanged(long sequenceNumber, String roomName, String hostName) {
+        return new SessionEvent(sequenceNumber, SessionEventType.HOST_CHANGED, roomName, null, hostName);
+    }
+
+    /**
+     * Creates an event for a player that joined a session.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param roomName The room name of the session.
+     * @return The event.
+     */
+    public static SessionEvent occupancyIncreased(long sequenceNumber, String roomName) {
+        return new SessionEvent(sequenceNumber, SessionEventType.OCCUPANCY_INCREASED, roomName, null, null);
+    }
+
+    /**
+     * Creates an event for a player that left a session.
+     *
+     * @param sequenceNumber The sequence number of the event.
+     * @param roomName The room name of the session.
+     * @return The event.
+     */
+    public static SessionEvent occupancyDecreased(long sequenceNumber, String roomName) {
+        return new SessionEvent(sequenceNumber, SessionEventType.OCCUPANCY_DECREASED, roomName, null, null);
+    }
+
+    /**
+     * Checks if the event has a type, a valid sequence number and the data its
+     * type needs. Events are received from game servers, so they are checked
+     * before they are applied.
+     *
+     * @return True if the event can be applied.
+     */
+    public boolean isValid() {
+        if (type == null || sequenceNumber < 0 || roomName == null) {
+            return false;
+        }
+
+        switch (type) {
+            case CREATED:
+                return sessionData != null && roomName.equals(sessionData.getRoomName());
+            case HOST_CHANGED:
+                return hostName != null;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Gets the sequence number of the event.
+     *
+     * @return The sequence number.
+     */
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * Gets the type of the event.
+     *
+     * @return The type.
+     */
+    public SessionEventType getType() {
+        return type;
+    }
+
+    /**
+     * Gets the room name of the session that changed.
+     *
+     * @return The room name.
+     */
+    public String getRoomName() {
+        return roomName;
+    }
+
+    /**
+     * Gets the data of the session that is created.
+     *
+     * @return The session data, or null if the event is not a CREATED event.
+     */
+    public SessionData getSessionData() {
+        return sessionData;
+    }
+
+    /**
+     * Gets the name of the new host player.
+     *
+     * @return The host name, or null if the event is not a HOST_CHANGED
+     * event.
+     */
+    public String getHostName() {
+        return hostName;
+    }
+
+}
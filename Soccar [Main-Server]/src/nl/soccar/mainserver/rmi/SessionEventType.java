@@ -0,0 +1,18 @@
+package nl.soccar.mainserver.rmi;
+
+/**
+ * The types of session events a game server can submit in a batch. Like
+ * SessionEvent, it is only used within the Main server until it is moved to
+ * the Soccar library.
+ *
+ * @author PTS34A
+ */
+public enum SessionEventType {
+
+    CREATED,
+    DESTROYED,
+    HOST_CHANGED,
+    OCCUPANCY_INCREASED,
+    OCCUPANCY_DECREASED
+
+}
@@ -0,0 +1,132 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A SessionPlacer chooses game servers for new sessions with a
+ * PlacementStrategy and keeps track of the sessions that were placed but not
+ * reported as created yet. These in-flight reservations are added to the
+ * loads the strategy sees, so a burst of sessions is not placed on the same
+ * game server because its load has not caught up. Every reservation counts as
+ * one session with one player, the host. A reservation also claims the room
+ * name, so the same room can not be created twice at the same time.
+ *
+ * @author PTS34A
+ */
+public class SessionPlacer {
+
+    private final PlacementStrategy strategy;
+    private final long reservationTimeout; // in milliseconds
+
+    private final Map<String, Reservation> reservations;
+
+    /**
+     * Constructor used for instantiation of a SessionPlacer object.
+     *
+     * @param strategy The strategy that chooses the game servers.
+     * @param reservationTimeout The time in milliseconds after which a
+     * reservation of a session that was never reported expires.
+     */
+    public SessionPlacer(PlacementStrategy strategy, long reservationTimeout) {
+        this.strategy = strategy;
+        this.reservationTimeout = reservationTimeout;
+
+        reservations = new HashMap<>();
+    }
+
+    /**
+     * Chooses a game server for a new session and reserves the room name on
+     * it.
+     *
+     * @param roomName The room name of the new session.
+     * @param loads The load of every game server that can be chosen.
+     * @return The chosen game server, or null if there are no game servers or
+     * the room name is already reserved.
+     */
+    public synchronized IGameServerForMainServer reserve(String roomName, Map<IGameServerForMainServer, GameServerLoad> loads) {
+        long now = System.currentTimeMillis();
+        expire(now);
+
+        if (reservations.containsKey(roomName)) {
+            return null;
+        }
+
+        Map<IGameServerForMainServer, Integer> reserved = new HashMap<>();
+        reservations.values().forEach(r -> reserved.merge(r.gameServer, 1, Integer::sum));
+
+        Map<IGameServerForMainServer, GameServerLoad> adjusted = new HashMap<>();
+        loads.forEach((server, load) -> {
+            int count = reserved.getOrDefault(server, 0);
+            adjusted.put(server, count == 0 ? load : load.withCounts(load.getSessionCount() + count, load.getPlayerCount() + count));
+        });
+
+        IGameServerForMainServer chosen = strategy.choose(adjusted);
+        if (chosen != null) {
+            reservations.put(roomName, new Reservation(chosen, now));
+        }
+
+        return chosen;
+    }
+
+    /**
+     * Releases the reservation of a room name, because the session is created
+     * and counted in the load of its game server, or because it could not be
+     * created.
+     *
+     * @param roomName The room name of the session.
+     */
+    public synchronized void release(String roomName) {
+        reservations.remove(roomName);
+    }
+
+    /**
+     * Gets the amount of sessions that were placed but not reported yet.
+     *
+     * @return The amount of reservations.
+     */
+    public synchronized int getReservationCount() {
+        return reservations.size();
+    }
+
+    /**
+     * Gets the strategy that chooses the game servers.
+     *
+     * @return The placement strategy.
+     */
+    public PlacementStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Removes the reservations that have expired.
+     *
+     * @param now The current time in milliseconds.
+     */
+    private void expire(long now) {
+        Iterator<Reservation> it = reservations.values().iterator();
+        while (it.hasNext()) {
+            if (now - it.next().reserved > reservationTimeout) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * A session that was placed on a game server but not reported yet.
+     */
+    private static final class Reservation {
+
+        private final IGameServerForMainServer gameServer;
+        private final long reserved; // in milliseconds
+
+        private Reservation(IGameServerForMainServer gameServer, long reserved) {
+            this.gameServer = gameServer;
+            this.reserved = reserved;
+        }
+
+    }
+
+}
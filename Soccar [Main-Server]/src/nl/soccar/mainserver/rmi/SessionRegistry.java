@@ -0,0 +1,628 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.soccar.library.SessionData;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A SessionRegistry keeps track of the sessions that are hosted on the
+ * registered game servers. Sessions are indexed both by room name and by game
+ * server, so looking up a session, checking if a room name is taken and
+ * removing all sessions of a game server do not require a scan over all
+ * sessions.
+ *
+ * The registry does not use a global lock. The indexes are concurrent maps and
+ * the occupancy of every session is an atomic counter that is changed with a
+ * capacity-checked compare-and-set, so events for unrelated rooms never wait
+ * for each other.
+ *
+ * Every change increases the version of the registry. Lobby listings are
+ * served from an immutable snapshot that is only rebuilt when it is requested
+ * after a change, so the cost of listing does not depend on the amount of
+ * clients that poll the lobby. The data of a session is never changed once it
+ * is in the registry; a change replaces it with a changed copy, so a snapshot
+ * always shows the sessions as they were at its version. The most recent changes are kept in a bounded
+ * change log, so clients that already know the lobby only need to receive the
+ * sessions that changed since the version they have seen. The change log is
+ * the only state that is guarded by a lock, which is held just long enough to
+ * append a single change.
+ *
+ * A game server can replace all of its sessions at once with the sessions it
+ * actually hosts, for example when it registers again after it was dropped.
+ * To detect drift without sending all sessions, a game server can compare the
+ * digest of its own sessions with the digest the registry computes.
+ *
+ * @author PTS34A
+ */
+public class SessionRegistry {
+
+    private static final int DEFAULT_CHANGE_LOG_SIZE = 1000;
+
+    private final Map<String, SessionEntry> sessionsByRoomName;
+    private final Map<IGameServerForMainServer, Set<String>> sessionsByServer;
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile LobbySnapshot snapshot = new LobbySnapshot(0, Collections.emptyList());
+
+    private final int changeLogSize;
+    private final Deque<Change> changeLog;
+    private long truncatedVersion; // guarded by changeLog
+
+    /**
+     * Constructor used for instantiation of an empty SessionRegistry object
+     * that keeps the default amount of changes.
+     */
+    public SessionRegistry() {
+        this(DEFAULT_CHANGE_LOG_SIZE);
+    }
+
+    /**
+     * Constructor used for instantiation of an empty SessionRegistry object.
+     *
+     * @param changeLogSize The maximum amount of changes that are kept for
+     * clients that ask for the changes since a version.
+     */
+    public SessionRegistry(int changeLogSize) {
+        this.changeLogSize = changeLogSize;
+
+        sessionsByRoomName = new ConcurrentHashMap<>();
+        sessionsByServer = new ConcurrentHashMap<>();
+        changeLog = new ArrayDeque<>();
+    }
+
+    /**
+     * Adds a game server without sessions to the registry. Nothing happens if
+     * the game server is already registered.
+     *
+     * @param gameServer The game server that is added.
+     */
+    public void addServer(IGameServerForMainServer gameServer) {
+        sessionsByServer.putIfAbsent(gameServer, ConcurrentHashMap.newKeySet());
+    }
+
+    /**
+     * Removes a game server and all of its sessions from the registry.
+     *
+     * @param gameServer The game server that is removed.
+     * @return The sessions that were hosted on the game server.
+     */
+    public Collection<SessionData> removeServer(IGameServerForMainServer gameServer) {
+        Set<String> roomNames = sessionsByServer.remove(gameServer);
+        if (roomNames == null) {
+            return Collections.emptyList();
+        }
+
+        List<SessionData> removed = new ArrayList<>(roomNames.size());
+        roomNames.forEach(roomName -> {
+            SessionEntry entry = sessionsByRoomName.get(roomName);
+            if (entry != null && entry.gameServer.equals(gameServer) && sessionsByRoomName.remove(roomName, entry)) {
+                removed.add(entry.sessionData);
+                changed(roomName, ChangeType.REMOVED);
+            }
+        });
+
+        return removed;
+    }
+
+    /**
+     * Adds a session that is hosted on the given game server. A session of
+     * the same game server with the same room name is replaced.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param sessionData The data of the session.
+     * @return True if the session is added, false if the game server is not
+     * registered or the room name is taken by a session on another game
+     * server.
+     */
+    public boolean add(IGameServerForMainServer gameServer, SessionData sessionData) {
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        if (roomNames == null) {
+            return false;
+        }
+
+        String roomName = sessionData.getRoomName();
+        SessionEntry entry = new SessionEntry(gameServer, sessionData);
+
+        SessionEntry existing = sessionsByRoomName.merge(roomName, entry,
+                (current, added) -> current.gameServer.equals(gameServer) ? added : current);
+        if (existing != entry) {
+            return false;
+        }
+
+        roomNames.add(roomName);
+
+        // The game server may have been removed while the session was added.
+        if (sessionsByServer.get(gameServer) != roomNames) {
+            sessionsByRoomName.remove(roomName, entry);
+            return false;
+        }
+
+        changed(roomName, ChangeType.ADDED);
+        return true;
+    }
+
+    /**
+     * Removes a session that is hosted on the given game server.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @return The data of the removed session, or null if the game server does
+     * not host a session with the given room name.
+     */
+    public SessionData remove(IGameServerForMainServer gameServer, String roomName) {
+        SessionEntry entry = find(gameServer, roomName);
+        if (entry == null || !sessionsByRoomName.remove(roomName, entry)) {
+            return null;
+        }
+
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        if (roomNames != null) {
+            roomNames.remove(roomName);
+        }
+
+        changed(roomName, ChangeType.REMOVED);
+        return entry.sessionData;
+    }
+
+    /**
+     * Gets a session that is hosted on the given game server.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @return The data of the session, or null if the game server does not
+     * host a session with the given room name.
+     */
+    public SessionData get(IGameServerForMainServer gameServer, String roomName) {
+        SessionEntry entry = find(gameServer, roomName);
+        return entry == null ? null : entry.sessionData;
+    }
+
+    /**
+     * Changes the host player of a session.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @param hostName The name of the new host player.
+     * @return True if the host is changed, false if the session does not
+     * exist.
+     */
+    public boolean changeHost(IGameServerForMainServer gameServer, String roomName, String hostName) {
+        SessionEntry entry = find(gameServer, roomName);
+        if (entry == null) {
+            return false;
+        }
+
+        synchronized (entry) {
+            SessionData sessionData = copy(entry.sessionData);
+            sessionData.setHostName(hostName);
+            entry.sessionData = sessionData;
+        }
+
+        changed(roomName, ChangeType.MODIFIED);
+        return true;
+    }
+
+    /**
+     * Increases the occupancy of a session by one, unless the session is full.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @return True if the occupancy is increased, false if the session does
+     * not exist or is full.
+     */
+    public boolean increaseOccupancy(IGameServerForMainServer gameServer, String roomName) {
+        SessionEntry entry = find(gameServer, roomName);
+        if (entry == null) {
+            return false;
+        }
+
+        int capacity = entry.sessionData.getCapacity();
+        int occupancy;
+        do {
+            occupancy = entry.occupancy.get();
+            if (occupancy >= capacity) {
+                return false;
+            }
+        } while (!entry.occupancy.compareAndSet(occupancy, occupancy + 1));
+
+        entry.publishOccupancy();
+        changed(roomName, ChangeType.MODIFIED);
+        return true;
+    }
+
+    /**
+     * Decreases the occupancy of a session by one, unless the session is
+     * empty.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @return True if the occupancy is decreased, false if the session does
+     * not exist or is empty.
+     */
+    public boolean decreaseOccupancy(IGameServerForMainServer gameServer, String roomName) {
+        SessionEntry entry = find(gameServer, roomName);
+        if (entry == null) {
+            return false;
+        }
+
+        int occupancy;
+        do {
+            occupancy = entry.occupancy.get();
+            if (occupancy <= 0) {
+                return false;
+            }
+        } while (!entry.occupancy.compareAndSet(occupancy, occupancy - 1));
+
+        entry.publishOccupancy();
+        changed(roomName, ChangeType.MODIFIED);
+        return true;
+    }
+
+    /**
+     * Replaces the sessions of the given game server with the sessions the
+     * game server reports. Reported sessions that are missing are added,
+     * sessions that differ are replaced and sessions that are no longer
+     * reported are removed. Reported sessions whose room name is taken by a
+     * session on another game server are skipped.
+     *
+     * @param gameServer The game server whose sessions are synchronized.
+     * @param reported All sessions that are hosted on the game server.
+     * @return The amount of sessions that were added, replaced or removed, 0
+     * if the registry was already in sync or the game server is not
+     * registered.
+     */
+    public int synchronize(IGameServerForMainServer gameServer, Collection<SessionData> reported) {
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        if (roomNames == null) {
+            return 0;
+        }
+
+        int changes = 0;
+        Set<String> reportedRoomNames = new HashSet<>();
+
+        for (SessionData sessionData : reported) {
+            String roomName = sessionData.getRoomName();
+            reportedRoomNames.add(roomName);
+
+            SessionEntry entry = find(gameServer, roomName);
+            if (entry == null) {
+                if (add(gameServer, sessionData)) {
+                    changes++;
+                }
+            } else if (!entry.matches(sessionData) && sessionsByRoomName.replace(roomName, entry, new SessionEntry(gameServer, sessionData))) {
+                changed(roomName, ChangeType.MODIFIED);
+                changes++;
+            }
+        }
+
+        for (String roomName : new ArrayList<>(roomNames)) {
+            if (!reportedRoomNames.contains(roomName) && remove(gameServer, roomName) != null) {
+                changes++;
+            }
+        }
+
+        return changes;
+    }
+
+    /**
+     * Computes the digest of the sessions that are hosted on the given game
+     * server.
+     *
+     * @param gameServer The game server whose sessions are digested.
+     * @return The digest of the sessions of the game server.
+     * @see #digest(Collection)
+     */
+    public long getDigest(IGameServerForMainServer gameServer) {
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        if (roomNames == null) {
+            return digest(Collections.emptyList());
+        }
+
+        List<SessionData> hosted = new ArrayList<>(roomNames.size());
+        for (String roomName : roomNames) {
+            SessionEntry entry = find(gameServer, roomName);
+            if (entry != null) {
+                hosted.add(entry.sessionData);
+            }
+        }
+
+        return digest(hosted);
+    }
+
+    /**
+     * Computes a digest of the given sessions. The digest does not depend on
+     * the order of the sessions, so a game server and the main server compute
+     * the same digest for the same sessions regardless of how they are stored.
+     *
+     * Game servers can not call this method, because the SessionRegistry is
+     * part of the Main server. It has to move to the Soccar library before
+     * game servers can verify their sessions with verifySessions.
+     *
+     * @param sessions The sessions that are digested.
+     * @return The digest of the sessions.
+     */
+    public static long digest(Collection<SessionData> sessions) {
+        long digest = sessions.size();
+        for (SessionData sessionData : sessions) {
+            long hash = Objects.hash(sessionData.getRoomName(), sessionData.getHostName(), sessionData.hasPassword(),
+                    sessionData.getOccupation(), sessionData.getCapacity());
+            digest += hash * 0x9E3779B97F4A7C15L;
+        }
+
+        return digest;
+    }
+
+    /**
+     * Checks if a session with the given room name exists on any game server.
+     *
+     * @param roomName The room name that is checked.
+     * @return True if the room name is taken.
+     */
+    public boolean containsRoomName(String roomName) {
+        return sessionsByRoomName.containsKey(roomName);
+    }
+
+    /**
+     * Gets the amount of sessions that are hosted on the given game server.
+     *
+     * @param gameServer The game server whose sessions are counted.
+     * @return The amount of sessions on the game server.
+     */
+    public int getSessionCount(IGameServerForMainServer gameServer) {
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        return roomNames == null ? 0 : roomNames.size();
+    }
+
+    /**
+     * Gets the amount of players in the sessions that are hosted on the given
+     * game server.
+     *
+     * @param gameServer The game server whose players are counted.
+     * @return The sum of the occupancy of the sessions on the game server.
+     */
+    public int getPlayerCount(IGameServerForMainServer gameServer) {
+        Set<String> roomNames = sessionsByServer.get(gameServer);
+        if (roomNames == null) {
+            return 0;
+        }
+
+        int players = 0;
+        for (String roomName : roomNames) {
+            SessionEntry entry = find(gameServer, roomName);
+            if (entry != null) {
+                players += entry.occupancy.get();
+            }
+        }
+
+        return players;
+    }
+
+    /**
+     * Gets all sessions of all game servers. The list is weakly consistent: a
+     * session that is added or removed while the list is built may or may not
+     * be part of it.
+     *
+     * @return A new list of all sessions.
+     */
+    public List<SessionData> getAllSessions() {
+        List<SessionData> list = new ArrayList<>(sessionsByRoomName.size());
+        sessionsByRoomName.values().forEach(entry -> list.add(entry.sessionData));
+        return list;
+    }
+
+    /**
+     * Gets the current version of the registry. The version is increased by
+     * every change to the sessions.
+     *
+     * @return The current version.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Gets an immutable snapshot of all sessions. The snapshot is shared
+     * between callers and only rebuilt when the registry changed since the
+     * last snapshot was built.
+     *
+     * @return The snapshot of the current version of the registry.
+     */
+    public LobbySnapshot getSnapshot() {
+        LobbySnapshot current = snapshot;
+        if (current.getVersion() == version.get()) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            long latest = version.get();
+            if (current.getVersion() != latest) {
+                current = new LobbySnapshot(latest, getAllSessions());
+                snapshot = current;
+            }
+
+            return current;
+        }
+    }
+
+    /**
+     * Gets the changes to the lobby since the given version. If the version
+     * is older than the oldest change in the change log, or is unknown, a full
+     * resync with all sessions is returned instead.
+     *
+     * @param lastVersion The version of the lobby the client has seen last.
+     * @return The changes since the given version.
+     */
+    public LobbyDelta getChanges(long lastVersion) {
+        Map<String, Boolean> changedRooms = new LinkedHashMap<>(); // room name -> added
+        long current;
+
+        synchronized (changeLog) {
+            current = version.get();
+            if (lastVersion == current) {
+                return LobbyDelta.unchanged(current);
+            }
+
+            if (lastVersion > current || lastVersion < truncatedVersion) {
+                return LobbyDelta.fullResync(getSnapshot());
+            }
+
+            Iterator<Change> it = changeLog.descendingIterator();
+            while (it.hasNext()) {
+                Change change = it.next();
+                if (change.version <= lastVersion) {
+                    break;
+                }
+
+                changedRooms.merge(change.roomName, change.type == ChangeType.ADDED, Boolean::logicalOr);
+            }
+        }
+
+        List<SessionData> added = new ArrayList<>();
+        List<SessionData> modified = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        changedRooms.forEach((roomName, isAdded) -> {
+            SessionEntry entry = sessionsByRoomName.get(roomName);
+            if (entry == null) {
+                removed.add(roomName);
+            } else if (isAdded) {
+                added.add(entry.sessionData);
+            } else {
+                modified.add(entry.sessionData);
+            }
+        });
+
+        return LobbyDelta.changes(current, added, modified, removed);
+    }
+
+    /**
+     * Increases the version of the registry and records the change in the
+     * change log, dropping the oldest change when the log is full.
+     *
+     * @param roomName The room name of the session that changed.
+     * @param type The type of the change.
+     */
+    private void changed(String roomName, ChangeType type) {
+        synchronized (changeLog) {
+            changeLog.addLast(new Change(version.incrementAndGet(), roomName, type));
+
+            if (changeLog.size() > changeLogSize) {
+                truncatedVersion = changeLog.removeFirst().version;
+            }
+        }
+    }
+
+    /**
+     * Finds the entry of a session that is hosted on the given game server.
+     *
+     * @param gameServer The game server on which the session is hosted.
+     * @param roomName The room name of the session.
+     * @return The entry of the session, or null if the game server does not
+     * host a session with the given room name.
+     */
+    private SessionEntry find(IGameServerForMainServer gameServer, String roomName) {
+        SessionEntry entry = sessionsByRoomName.get(roomName);
+        return entry != null && entry.gameServer.equals(gameServer) ? entry : null;
+    }
+
+    /**
+     * Copies the given session data field by field. This runs for every host
+     * and occupancy change, so it must stay as cheap as creating the object.
+     *
+     * @param sessionData The session data that is copied.
+     * @return A copy of the session data.
+     */
+    private static SessionData copy(SessionData sessionData) {
+        SessionData copy = new SessionData(sessionData.getAddress(), sessionData.getRoomName(), sessionData.getHostName(), sessionData.hasPassword());
+        copy.setOccupation(sessionData.getOccupation());
+        copy.setCapacity(sessionData.getCapacity());
+        return copy;
+    }
+
+    /**
+     * The types of changes that are recorded in the change log.
+     */
+    private enum ChangeType {
+        ADDED, MODIFIED, REMOVED
+    }
+
+    /**
+     * A change of a single session at a certain version.
+     */
+    private static final class Change {
+
+        private final long version;
+        private final String roomName;
+        private final ChangeType type;
+
+        private Change(long version, String roomName, ChangeType type) {
+            this.version = version;
+            this.roomName = roomName;
+            this.type = type;
+        }
+
+    }
+
+    /**
+     * A session and the game server on which it is hosted. The session data is
+     * replaced rather than changed, while holding the entry lock.
+     */
+    private static final class SessionEntry {
+
+        private final IGameServerForMainServer gameServer;
+        private volatile SessionData sessionData;
+        private final AtomicInteger occupancy;
+
+        private SessionEntry(IGameServerForMainServer gameServer, SessionData sessionData) {
+            this.gameServer = gameServer;
+            this.sessionData = sessionData;
+
+            occupancy = new AtomicInteger(sessionData.getOccupation());
+        }
+
+        /**
+         * Checks if the session has the same state as the given session data.
+         *
+         * @param other The session data that is compared.
+         * @return True if the host, password, occupancy and capacity match.
+         */
+        private synchronized boolean matches(SessionData other) {
+            return Objects.equals(sessionData.getHostName(), other.getHostName())
+                    && sessionData.hasPassword() == other.hasPassword()
+                    && occupancy.get() == other.getOccupation()
+                    && sessionData.getCapacity() == other.getCapacity();
+        }
+
+        /**
+         * Replaces the session data with a copy that has the occupancy of the
+         * counter. The latest value of the counter is used while holding the
+         * entry lock, so concurrent updates can never leave a stale occupancy
+         * behind.
+         */
+        private synchronized void publishOccupancy() {
+            int current = occupancy.get();
+            if (sessionData.getOccupation() != current) {
+                SessionData updated = copy(sessionData);
+                updated.setOccupation(current);
+                sessionData = updated;
+            }
+        }
+
+    }
+
+}
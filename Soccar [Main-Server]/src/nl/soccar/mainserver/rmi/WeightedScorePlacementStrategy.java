@@ -0,0 +1,76 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Map;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * A WeightedScorePlacementStrategy chooses the game server with the best
+ * combined score of available memory, sessions and players. Every metric is
+ * divided by its highest value among the game servers, so the weights do not
+ * depend on the units of the metrics.
+ *
+ * @author PTS34A
+ */
+public class WeightedScorePlacementStrategy implements PlacementStrategy {
+
+    private static final double DEFAULT_MEMORY_WEIGHT = 0.4;
+    private static final double DEFAULT_SESSION_WEIGHT = 0.3;
+    private static final double DEFAULT_PLAYER_WEIGHT = 0.3;
+
+    private final double memoryWeight;
+    private final double sessionWeight;
+    private final double playerWeight;
+
+    /**
+     * Constructor used for instantiation of a WeightedScorePlacementStrategy
+     * object with the default weights.
+     */
+    public WeightedScorePlacementStrategy() {
+        this(DEFAULT_MEMORY_WEIGHT, DEFAULT_SESSION_WEIGHT, DEFAULT_PLAYER_WEIGHT);
+    }
+
+    /**
+     * Constructor used for instantiation of a WeightedScorePlacementStrategy
+     * object.
+     *
+     * @param memoryWeight The weight of the available memory.
+     * @param sessionWeight The weight of the amount of sessions.
+     * @param playerWeight The weight of the amount of players.
+     */
+    public WeightedScorePlacementStrategy(double memoryWeight, double sessionWeight, double playerWeight) {
+        this.memoryWeight = memoryWeight;
+        this.sessionWeight = sessionWeight;
+        this.playerWeight = playerWeight;
+    }
+
+    @Override
+    public IGameServerForMainServer choose(Map<IGameServerForMainServer, GameServerLoad> loads) {
+        long maxMemory = 1;
+        int maxSessions = 1;
+        int maxPlayers = 1;
+
+        for (GameServerLoad load : loads.values()) {
+            maxMemory = Math.max(maxMemory, load.getAvailableMemory());
+            maxSessions = Math.max(maxSessions, load.getSessionCount());
+            maxPlayers = Math.max(maxPlayers, load.getPlayerCount());
+        }
+
+        IGameServerForMainServer chosen = null;
+        double bestScore = Double.NEGATIVE_INFINITY;
+
+        for (Map.Entry<IGameServerForMainServer, GameServerLoad> entry : loads.entrySet()) {
+            GameServerLoad load = entry.getValue();
+            double score = memoryWeight * load.getAvailableMemory() / maxMemory
+                    - sessionWeight * load.getSessionCount() / maxSessions
+                    - playerWeight * load.getPlayerCount() / maxPlayers;
+
+            if (score > bestScore) {
+                bestScore = score;
+                chosen = entry.getKey();
+            }
+        }
+
+        return chosen;
+    }
+
+}
@@ -0,0 +1,167 @@
+package nl.soccar.mainserver.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A BoundedThreadPool is a thread pool with a fixed maximum amount of threads
+ * and a bounded task queue. Tasks that are submitted while the queue is full
+ * are rejected immediately with a RejectedExecutionException instead of piling
+ * up. The pool keeps track of the time tasks spend waiting in the queue and
+ * running.
+ *
+ * @author PTS34A
+ */
+public class BoundedThreadPool extends ThreadPoolExecutor {
+
+    private static final long KEEP_ALIVE_TIME = 60; // in seconds
+
+    private final String name;
+    private final int queueCapacity;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong timedTaskCount = new AtomicLong();
+    private final AtomicLong totalQueueTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong maxQueueTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong totalExecutionTime = new AtomicLong(); // in nanoseconds
+
+    /**
+     * Constructor used for instantiation of a BoundedThreadPool object.
+     * Threads that are idle for a minute are stopped.
+     *
+     * @param name The name of the pool that is used to name its threads.
+     * @param poolSize The maximum amount of threads that run tasks at the same
+     * time.
+     * @param queueCapacity The maximum amount of tasks that wait for a thread.
+     */
+    public BoundedThreadPool(String name, int poolSize, int queueCapacity) {
+        super(poolSize, poolSize, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity), newThreadFactory(name));
+
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+
+        allowCoreThreadTimeOut(true);
+        setRejectedExecutionHandler((task, executor) -> {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(executor.isShutdown()
+                    ? String.format("The %s pool is shut down.", name)
+                    : String.format("The %s pool is saturated (%d tasks queued), try again later.", name, queueCapacity));
+        });
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(new TimedTask(command));
+    }
+
+    /**
+     * Gets the amount of tasks that are waiting for a thread.
+     *
+     * @return The current queue depth.
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gets the maximum amount of tasks that can wait for a thread.
+     *
+     * @return The queue capacity.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the amount of tasks that were rejected because the queue was full
+     * or the pool was shut down.
+     *
+     * @return The amount of rejected tasks.
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Gets the average time a task waited in the queue before it started.
+     *
+     * @return The average queue time in milliseconds.
+     */
+    public double getAverageQueueTime() {
+        long count = timedTaskCount.get();
+        return count == 0 ? 0 : totalQueueTime.get() / (double) count / 1_000_000;
+    }
+
+    /**
+     * Gets the longest time a task waited in the queue before it started.
+     *
+     * @return The maximum queue time in milliseconds.
+     */
+    public double getMaxQueueTime() {
+        return maxQueueTime.get() / 1_000_000.0;
+    }
+
+    /**
+     * Gets the average time a task took to run.
+     *
+     * @return The average execution time in milliseconds.
+     */
+    public double getAverageExecutionTime() {
+        long count = timedTaskCount.get();
+        return count == 0 ? 0 : totalExecutionTime.get() / (double) count / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[threads=%d/%d, active=%d, queued=%d/%d, completed=%d, rejected=%d, avgQueue=%.2fms, maxQueue=%.2fms, avgExecution=%.2fms]",
+                name, getPoolSize(), getMaximumPoolSize(), getActiveCount(), getQueueDepth(), queueCapacity, getCompletedTaskCount(), getRejectedCount(),
+                getAverageQueueTime(), getMaxQueueTime(), getAverageExecutionTime());
+    }
+
+    /**
+     * Creates a thread factory that names threads after the pool.
+     *
+     * @param name The name of the pool.
+     * @return The thread factory.
+     */
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> new Thread(r, String.format("%s-%d", name, counter.incrementAndGet()));
+    }
+
+    /**
+     * A task that records how long it waited in the queue and how long it ran.
+     */
+    private final class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final long submitted;
+
+        private TimedTask(Runnable task) {
+            this.task = task;
+            submitted = System.nanoTime();
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            long queueTime = start - submitted;
+
+            try {
+                task.run();
+            } finally {
+                timedTaskCount.incrementAndGet();
+                totalQueueTime.addAndGet(queueTime);
+                maxQueueTime.accumulateAndGet(queueTime, Math::max);
+                totalExecutionTime.addAndGet(System.nanoTime() - start);
+            }
+        }
+
+    }
+
+}
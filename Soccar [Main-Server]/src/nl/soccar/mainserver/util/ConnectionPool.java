@@ -0,0 +1,533 @@
+package nl.soccar.mainserver.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A ConnectionPool keeps a bounded set of physical database connections that
+ * are borrowed by the data contexts for the duration of a single query. A
+ * borrowed connection is returned to the pool when it is closed.
+ *
+ * The pool keeps at least the minimum amount of connections open, never opens
+ * more than the maximum amount of connections, validates idle connections
+ * before handing them out, closes connections that have been idle for too long
+ * and reports connections that are borrowed for longer than the leak detection
+ * threshold. The stack trace of the borrower is only captured when leak
+ * tracing is enabled, because capturing it on every borrow is expensive;
+ * otherwise leaks are reported with the name of the borrowing thread. Every
+ * physical connection keeps its own StatementCache so
+ * frequently used queries are only prepared once per connection.
+ *
+ * @author PTS34A
+ */
+public class ConnectionPool {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getSimpleName());
+
+    private static final long MAINTENANCE_INTERVAL = 5000; // in milliseconds
+
+    private final String url;
+    private final String user;
+    private final String password;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeout; // in milliseconds
+    private final long idleTimeout; // in milliseconds
+    private final long leakDetectionThreshold; // in milliseconds
+    private final boolean leakTracing;
+    private final int validationTimeout; // in seconds
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<PooledConnection> idle;
+    private final Set<PooledConnection> active;
+    private final AtomicInteger size;
+    private final ScheduledExecutorService maintenance;
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong maxWaitTime = new AtomicLong(); // in nanoseconds
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+
+    /**
+     * Constructor used for instantiation of a ConnectionPool object. The
+     * minimum amount of connections is opened immediately and a maintenance
+     * thread is started that evicts idle connections and detects leaks.
+     *
+     * @param url The JDBC url of the database.
+     * @param user The user that is used to log in to the database.
+     * @param password The password that is used to log in to the database.
+     * @param minSize The amount of connections that is kept open at all times.
+     * @param maxSize The maximum amount of connections that can be open at the
+     * same time.
+     * @param borrowTimeout The maximum time in milliseconds a caller waits for
+     * a connection to become available.
+     * @param idleTimeout The time in milliseconds after which an idle
+     * connection above the minimum size is closed.
+     * @param leakDetectionThreshold The time in milliseconds after which a
+     * borrowed connection that is not returned is reported as leaked.
+     * @param leakTracing True if the stack trace of every borrower is captured
+     * so leaks can be reported with the code that borrowed the connection.
+     * @param validationTimeout The time in seconds the database is given to
+     * validate a connection before it is handed out.
+     * @param statementCacheSize The maximum amount of prepared statements that
+     * is cached per connection, or 0 to disable statement caching.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize, long borrowTimeout, long idleTimeout, long leakDetectionThreshold, boolean leakTracing, int validationTimeout, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("The pool size must satisfy 0 <= minSize <= maxSize and maxSize >= 1.");
+        }
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeout = borrowTimeout;
+        this.idleTimeout = idleTimeout;
+        this.leakDetectionThreshold = leakDetectionThreshold;
+        this.leakTracing = leakTracing;
+        this.validationTimeout = validationTimeout;
+        this.statementCacheSize = statementCacheSize;
+
+        permits = new Semaphore(maxSize, true);
+        idle = new ConcurrentLinkedDeque<>();
+        active = ConcurrentHashMap.newKeySet();
+        size = new AtomicInteger();
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ConnectionPool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        maintenance.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL, MAINTENANCE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        fill();
+    }
+
+    /**
+     * Borrows a connection from the pool. The returned connection must be
+     * closed by the caller, which returns it to the pool.
+     *
+     * @return A validated connection to the database.
+     * @throws SQLException Thrown when the pool is closed, when no connection
+     * became available within the borrow timeout or when a new connection could
+     * not be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed.");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException(String.format("Timed out after %d ms while waiting for a database connection (active: %d, idle: %d).", borrowTimeout, getActiveCount(), getIdleCount()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection connection = takeIdle();
+            if (connection == null) {
+                connection = open();
+            }
+
+            connection.borrowedAt = System.currentTimeMillis();
+            connection.borrowThread = Thread.currentThread().getName();
+            connection.borrowTrace = leakTracing ? new Throwable("Connection borrowed here") : null;
+            connection.leakReported = false;
+            active.add(connection);
+
+            recordWait(System.nanoTime() - start);
+            return connection.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes all connections and stops the maintenance thread. Connections
+     * that are still borrowed are closed as soon as they are returned.
+     */
+    public void close() {
+        closed = true;
+        maintenance.shutdownNow();
+
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection);
+        }
+    }
+
+    /**
+     * Gets the amount of connections that are currently borrowed.
+     *
+     * @return The amount of active connections.
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * Gets the amount of connections that are open but not borrowed.
+     *
+     * @return The amount of idle connections.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Gets the amount of open physical connections.
+     *
+     * @return The amount of open connections.
+     */
+    public int getSize() {
+        return size.get();
+    }
+
+    /**
+     * Gets the maximum amount of connections this pool opens.
+     *
+     * @return The maximum pool size.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Gets the amount of connections that have been borrowed since the pool
+     * was created.
+     *
+     * @return The total amount of borrowed connections.
+     */
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    /**
+     * Gets the average time callers waited for a connection.
+     *
+     * @return The average wait time in milliseconds.
+     */
+    public double getAverageWaitTime() {
+        long count = borrowCount.get();
+        return count == 0 ? 0 : totalWaitTime.get() / (double) count / 1_000_000;
+    }
+
+    /**
+     * Gets the longest time a caller waited for a connection.
+     *
+     * @return The maximum wait time in milliseconds.
+     */
+    public double getMaxWaitTime() {
+        return maxWaitTime.get() / 1_000_000.0;
+    }
+
+    /**
+     * Gets the amount of times a caller gave up waiting for a connection.
+     *
+     * @return The amount of borrow timeouts.
+     */
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    /**
+     * Gets the amount of connections that were reported as leaked.
+     *
+     * @return The amount of detected leaks.
+     */
+    public long getLeakCount() {
+        return leakCount.get();
+    }
+
+    /**
+     * Gets the amount of times a cached prepared statement was reused.
+     *
+     * @return The amount of statement cache hits.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.get();
+    }
+
+    /**
+     * Gets the amount of times a statement had to be prepared because it was
+     * not cached.
+     *
+     * @return The amount of statement cache misses.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.get();
+    }
+
+    /**
+     * Gets the amount of cached statements that were closed to keep the
+     * statement caches within their bounds.
+     *
+     * @return The amount of statement cache evictions.
+     */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool[size=%d, active=%d, idle=%d, max=%d, borrowed=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, leaks=%d, statementHits=%d, statementMisses=%d, statementEvictions=%d]",
+                getSize(), getActiveCount(), getIdleCount(), maxSize, getBorrowCount(), getAverageWaitTime(), getMaxWaitTime(), getTimeoutCount(), getLeakCount(),
+                getStatementCacheHits(), getStatementCacheMisses(), getStatementCacheEvictions());
+    }
+
+    /**
+     * Takes the most recently used idle connection that is still valid.
+     * Connections that fail validation are closed.
+     *
+     * @return A valid idle connection, or null if there is none.
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (isValid(connection)) {
+                return connection;
+            }
+
+            LOGGER.info("Discarded a database connection that failed validation.");
+            discard(connection);
+        }
+
+        return null;
+    }
+
+    /**
+     * Checks if the given connection is still usable.
+     *
+     * @param connection The connection that needs to be validated.
+     * @return True if the database responded within the validation timeout.
+     */
+    private boolean isValid(PooledConnection connection) {
+        try {
+            return connection.physical.isValid(validationTimeout);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens a new physical connection.
+     *
+     * @return The newly opened connection.
+     * @throws SQLException Thrown when the database connection could not be
+     * established.
+     */
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(DriverManager.getConnection(url, user, password));
+        size.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Closes the physical connection of the given pooled connection.
+     *
+     * @param connection The connection that needs to be closed.
+     */
+    private void discard(PooledConnection connection) {
+        size.decrementAndGet();
+        if (connection.statementCache != null) {
+            connection.statementCache.close();
+        }
+
+        try {
+            connection.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "An error occurred while closing a database connection.", e);
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool. Uncommitted work is rolled
+     * back so the next borrower starts with a clean connection.
+     *
+     * @param connection The connection that is returned.
+     */
+    private void release(PooledConnection connection) {
+        active.remove(connection);
+        connection.borrowThread = null;
+        connection.borrowTrace = null;
+
+        try {
+            if (!connection.physical.getAutoCommit()) {
+                connection.physical.rollback();
+                connection.physical.setAutoCommit(true);
+            }
+
+            if (closed) {
+                discard(connection);
+            } else {
+                connection.lastUsed = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "A database connection could not be reset and is discarded.", e);
+            discard(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Records the time a caller waited for a connection.
+     *
+     * @param waitTime The wait time in nanoseconds.
+     */
+    private void recordWait(long waitTime) {
+        borrowCount.incrementAndGet();
+        totalWaitTime.addAndGet(waitTime);
+        maxWaitTime.accumulateAndGet(waitTime, Math::max);
+    }
+
+    /**
+     * Opens connections until the minimum pool size is reached.
+     */
+    private void fill() {
+        while (!closed && size.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledConnection connection = open();
+                connection.lastUsed = System.currentTimeMillis();
+                idle.offerLast(connection);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "An error occurred while establishing a pooled database connection.", e);
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * Evicts connections that have been idle for longer than the idle timeout,
+     * restores the minimum pool size and reports leaked connections.
+     */
+    private void maintain() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && size.get() > minSize) {
+            PooledConnection connection = it.next();
+            if (now - connection.lastUsed > idleTimeout && idle.removeLastOccurrence(connection)) {
+                discard(connection);
+            }
+        }
+
+        fill();
+
+        for (PooledConnection connection : active) {
+            String thread = connection.borrowThread;
+            if (!connection.leakReported && thread != null && now - connection.borrowedAt > leakDetectionThreshold) {
+                connection.leakReported = true;
+                leakCount.incrementAndGet();
+                LOGGER.log(Level.WARNING, String.format("A database connection borrowed by thread %s has been borrowed for more than %d ms and may have leaked.", thread, leakDetectionThreshold), connection.borrowTrace);
+            }
+        }
+    }
+
+    /**
+     * A physical connection that is owned by this pool.
+     */
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final StatementCache statementCache;
+        private volatile long lastUsed;
+        private volatile long borrowedAt;
+        private volatile String borrowThread;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+
+            statementCache = statementCacheSize > 0
+                    ? new StatementCache(physical, statementCacheSize, statementCacheHits, statementCacheMisses, statementCacheEvictions)
+                    : null;
+        }
+
+        /**
+         * Creates a connection handle for a single borrower. Closing the
+         * handle returns the physical connection to the pool, after which the
+         * handle can no longer be used. Statements that are prepared with only
+         * an SQL text are served from the statement cache.
+         *
+         * @return The connection handle.
+         */
+        private Connection newHandle() {
+            AtomicBoolean released = new AtomicBoolean();
+
+            InvocationHandler handler = (Object proxy, Method method, Object[] args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (released.compareAndSet(false, true)) {
+                            release(this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return released.get() || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled" + physical;
+                    default:
+                        if (released.get()) {
+                            throw new SQLException("The connection has already been returned to the pool.");
+                        }
+                        if (statementCache != null && args != null && args.length == 1 && args[0] instanceof String) {
+                            if (method.getName().equals("prepareCall")) {
+                                return statementCache.prepareCall((String) args[0]);
+                            } else if (method.getName().equals("prepareStatement")) {
+                                return statementCache.prepareStatement((String) args[0]);
+                            }
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            };
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        }
+
+    }
+
+}
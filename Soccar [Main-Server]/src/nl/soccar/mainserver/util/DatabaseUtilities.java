@@ -2,10 +2,7 @@ package nl.soccar.mainserver.util;
 
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.sql.CallableStatement;
 import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Properties;
 import java.util.logging.Level;
@@ -13,7 +10,8 @@ import java.util.logging.Logger;
 
 /**
  * Utility class that database access provides methods for initializing, closing
- * and querying the database.
+ * and querying the database. Connections are handed out by a ConnectionPool so
+ * concurrent queries do not have to share a single connection.
  *
  * @author PTS34A
  */
@@ -23,7 +21,16 @@ public class DatabaseUtilities {
 
     private static final String LOCATION_PROPERTIES = "database.properties";
 
-    private static Connection connection;
+    private static final int DEFAULT_POOL_MIN_SIZE = 2;
+    private static final int DEFAULT_POOL_MAX_SIZE = 10;
+    private static final long DEFAULT_POOL_BORROW_TIMEOUT = 5000; // in milliseconds
+    private static final long DEFAULT_POOL_IDLE_TIMEOUT = 600000; // in milliseconds
+    private static final long DEFAULT_POOL_LEAK_DETECTION_THRESHOLD = 60000; // in milliseconds
+    private static final boolean DEFAULT_POOL_LEAK_DETECTION = false;
+    private static final int DEFAULT_POOL_VALIDATION_TIMEOUT = 2; // in seconds
+    private static final int DEFAULT_POOL_STATEMENT_CACHE_SIZE = 50;
+
+    private static ConnectionPool pool;
 
     /**
      * Constructor that is intentionally marked private so a DatabaseUtilities
@@ -33,8 +40,11 @@ public class DatabaseUtilities {
     }
 
     /**
-     * Initializes the database connection based on the connection settings in
-     * the database.properties file.
+     * Initializes the database connection pool based on the connection and
+     * pool settings in the database.properties file. Server-side prepared
+     * statements are enabled so the statements cached by the pool are only
+     * parsed once by the database, and batched statements are rewritten so a
+     * batch is sent to the database in a single round trip.
      */
     public static void init() {
         Properties props = new Properties();
@@ -45,59 +55,63 @@ public class DatabaseUtilities {
             LOGGER.log(Level.SEVERE, "An error occurred while loading the database properties file.", e);
         }
 
+        String url = String.format("%s:%s://%s/%s?useSSL=false&connectTimeout=0&socketTimeout=0&autoReconnect=true&useServerPrepStmts=true&rewriteBatchedStatements=true",
+                props.getProperty("protocol"),
+                props.getProperty("system"),
+                props.getProperty("server"),
+                props.getProperty("database"));
+
         try {
-            connection = DriverManager.getConnection(
-                    String.format("%s:%s://%s/%s?useSSL=false&connectTimeout=0&socketTimeout=0&autoReconnect=true",
-                            props.getProperty("protocol"),
-                            props.getProperty("system"),
-                            props.getProperty("server"),
-                            props.getProperty("database")),
-                    props.getProperty("user"),
-                    props.getProperty("password"));
-            LOGGER.info("Database connection established.");
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "An error occurred while establishing the database connection.", e);
+            pool = new ConnectionPool(url, props.getProperty("user"), props.getProperty("password"),
+                    Integer.parseInt(props.getProperty("pool.minSize", String.valueOf(DEFAULT_POOL_MIN_SIZE))),
+                    Integer.parseInt(props.getProperty("pool.maxSize", String.valueOf(DEFAULT_POOL_MAX_SIZE))),
+                    Long.parseLong(props.getProperty("pool.borrowTimeout", String.valueOf(DEFAULT_POOL_BORROW_TIMEOUT))),
+                    Long.parseLong(props.getProperty("pool.idleTimeout", String.valueOf(DEFAULT_POOL_IDLE_TIMEOUT))),
+                    Long.parseLong(props.getProperty("pool.leakDetectionThreshold", String.valueOf(DEFAULT_POOL_LEAK_DETECTION_THRESHOLD))),
+                    Boolean.parseBoolean(props.getProperty("pool.leakDetection", String.valueOf(DEFAULT_POOL_LEAK_DETECTION))),
+                    Integer.parseInt(props.getProperty("pool.validationTimeout", String.valueOf(DEFAULT_POOL_VALIDATION_TIMEOUT))),
+                    Integer.parseInt(props.getProperty("pool.statementCacheSize", String.valueOf(DEFAULT_POOL_STATEMENT_CACHE_SIZE))));
+            LOGGER.log(Level.INFO, "Database connection pool initialized: {0}", pool);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "An error occurred while initializing the database connection pool.", e);
         }
     }
 
     /**
-     * Closes the database connection if it's initialized.
+     * Closes all pooled database connections if the pool is initialized.
      */
     public static void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-                LOGGER.info("Database connection closed.");
-            } catch (SQLException e) {
-                LOGGER.log(Level.SEVERE, "An error occurred while closing the database connection.", e);
-            }
+        if (pool != null) {
+            LOGGER.log(Level.INFO, "Closing database connection pool: {0}", pool);
+            pool.close();
+            LOGGER.info("Database connection pool closed.");
         }
     }
 
     /**
-     * Prepares an SQL query call to the database using the active database
-     * connection.
+     * Borrows a connection from the database connection pool. The connection
+     * must be closed after use, which returns it to the pool.
      *
-     * @param query The SQL query call that needs to be prepared.
-     * @return The prepared CallableStatement that can be set and executed.
-     * @throws SQLException The exception that can be thrown when the SQL query
-     * fails.
+     * @return A connection that can be used to prepare and execute queries.
+     * @throws SQLException The exception that is thrown when the pool is not
+     * initialized or no connection became available in time.
      */
-    public static CallableStatement prepareCall(String query) throws SQLException {
-        return connection.prepareCall(query);
+    public static Connection getConnection() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("The database connection pool is not initialized.");
+        }
+
+        return pool.getConnection();
     }
 
     /**
-     * Prepares an SQL query statement to the database using the active database
-     * connection.
+     * Gets the database connection pool so its active and idle connection
+     * counts, wait times and statement cache counters can be inspected.
      *
-     * @param query The SQL query statement that needs to be prepared.
-     * @return The prepared PreparedStatement that can be set and executed.
-     * @throws SQLException The exception that can be thrown when the SQL query
-     * fails.
+     * @return The database connection pool, or null if it is not initialized.
      */
-    public static PreparedStatement prepareStatement(String query) throws SQLException {
-        return connection.prepareStatement(query);
+    public static ConnectionPool getPool() {
+        return pool;
     }
 
 }
@@ -0,0 +1,367 @@
+package nl.soccar.mainserver.util;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A LoadingCache is a thread-safe cache with a maximum size and a time to
+ * live. Values that are missing are loaded asynchronously; concurrent requests
+ * for the same missing key share a single load. When the cache is full, the
+ * least recently used values are evicted.
+ *
+ * Cached values are read without locking. Every read records the moment the
+ * value was used; when the cache grows beyond its maximum size, a single
+ * thread evicts the least recently used values in one pass, leaving some room
+ * so the next values can be added without evicting again.
+ *
+ * @author PTS34A
+ * @param <K> The type of the keys of the cache.
+ * @param <V> The type of the cached values.
+ */
+public class LoadingCache<K, V> {
+
+    private static final int EVICTION_HEADROOM = 20; // in parts of the maximum size
+
+    private final int maxSize;
+    private final long timeToLive; // in milliseconds
+
+    private final Map<K, CacheEntry<V>> entries;
+    private final Map<K, Load<V>> loads;
+    private final AtomicLong clock = new AtomicLong();
+    private final Lock evictionLock = new ReentrantLock();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * Constructor used for instantiation of a LoadingCache object.
+     *
+     * @param maxSize The maximum amount of values that are cached.
+     * @param timeToLive The time in milliseconds after which a cached value
+     * expires.
+     */
+    public LoadingCache(int maxSize, long timeToLive) {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+
+        entries = new ConcurrentHashMap<>();
+        loads = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Gets the cached value of the given key.
+     *
+     * @param key The key whose value is requested.
+     * @return The cached value, or null if the key is not cached or its value
+     * has expired.
+     */
+    public V getIfPresent(K key) {
+        V value = lookup(key);
+
+        if (value != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the cached value of the given key, loading it with the given loader
+     * if it is not cached. If the key is already being loaded, the running
+     * load is shared instead of starting a new one. A value that was cached by
+     * a load that completed just before this load was registered is returned
+     * without loading it again.
+     *
+     * @param key The key whose value is requested.
+     * @param loader The function that loads the value of a missing key.
+     * @return A future that completes with the value of the key.
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        Load<V> load = new Load<>();
+        Load<V> running = loads.putIfAbsent(key, load);
+        if (running != null) {
+            return running.future;
+        }
+
+        value = lookup(key);
+        if (value != null) {
+            loads.remove(key, load);
+            load.future.complete(value);
+            return load.future;
+        }
+
+        CompletableFuture<V> loaded;
+        try {
+            loaded = loader.apply(key);
+        } catch (RuntimeException e) {
+            loads.remove(key, load);
+            load.future.completeExceptionally(e);
+            return load.future;
+        }
+
+        loaded.whenComplete((result, e) -> {
+            if (e == null && result != null) {
+                entries.compute(key, (k, entry) -> load.invalidated ? entry : newEntry(result, System.currentTimeMillis() + timeToLive));
+                evict();
+            }
+
+            loads.remove(key, load);
+
+            if (e != null) {
+                load.future.completeExceptionally(e);
+            } else {
+                load.future.complete(result);
+            }
+        });
+
+        return load.future;
+    }
+
+    /**
+     * Caches the given value for the given key, replacing any cached value.
+     *
+     * @param key The key of the value.
+     * @param value The value that needs to be cached.
+     */
+    public void put(K key, V value) {
+        entries.put(key, newEntry(value, System.currentTimeMillis() + timeToLive));
+        evict();
+    }
+
+    /**
+     * Replaces the cached value of the given key with the result of the given
+     * function, if the key is cached and its value has not expired. The value
+     * keeps its expiry time. A load of the key that is still running will not
+     * be cached when it completes, because it may not include the update.
+     *
+     * @param key The key whose value needs to be updated.
+     * @param remapping The function that computes the new value from the
+     * cached value.
+     * @return True if a cached value was updated.
+     */
+    public boolean computeIfPresent(K key, UnaryOperator<V> remapping) {
+        boolean[] updated = new boolean[1];
+
+        entries.compute(key, (k, entry) -> {
+            cancelLoad(k);
+
+            if (entry == null || entry.isExpired()) {
+                return null;
+            }
+
+            updated[0] = true;
+            return newEntry(remapping.apply(entry.value), entry.expires);
+        });
+
+        return updated[0];
+    }
+
+    /**
+     * Removes the cached value of the given key. A load of the key that is
+     * still running will not be cached when it completes.
+     *
+     * @param key The key whose value needs to be removed.
+     */
+    public void invalidate(K key) {
+        entries.compute(key, (k, entry) -> {
+            cancelLoad(k);
+            return null;
+        });
+    }
+
+    /**
+     * Removes all cached values. Loads that are still running will not be
+     * cached when they complete.
+     */
+    public void invalidateAll() {
+        loads.values().forEach(load -> load.invalidated = true);
+        loads.clear();
+        entries.clear();
+    }
+
+    /**
+     * Gets the amount of cached values, including values that have expired but
+     * have not been removed yet.
+     *
+     * @return The amount of cached values.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Gets the amount of requests that were served from the cache.
+     *
+     * @return The amount of cache hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the amount of requests for keys that were not cached.
+     *
+     * @return The amount of cache misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the amount of values that were removed because the cache was full
+     * or because they expired.
+     *
+     * @return The amount of evictions.
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * Gets the fraction of requests that were served from the cache.
+     *
+     * @return The hit rate between 0 and 1.
+     */
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadingCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f]",
+                size(), maxSize, getHitCount(), getMissCount(), getEvictionCount(), getHitRate());
+    }
+
+    /**
+     * Makes sure a load of the given key that is still running will not be
+     * cached. Must be called while computing the entry of the key, so the
+     * load can not be cached between the check and the update of the caller.
+     *
+     * @param key The key whose load is cancelled.
+     */
+    private void cancelLoad(K key) {
+        Load<V> load = loads.remove(key);
+        if (load != null) {
+            load.invalidated = true;
+        }
+    }
+
+    /**
+     * Looks up the value of the given key and removes it if it has expired.
+     *
+     * @param key The key whose value is looked up.
+     * @return The value, or null if it is not cached or has expired.
+     */
+    private V lookup(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.isExpired()) {
+            if (entries.remove(key, entry)) {
+                evictionCount.incrementAndGet();
+            }
+            return null;
+        }
+
+        entry.lastAccess = clock.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Creates an entry for the given value that counts as used right now.
+     *
+     * @param value The value that is cached.
+     * @param expires The moment in milliseconds at which the value expires.
+     * @return The new entry.
+     */
+    private CacheEntry<V> newEntry(V value, long expires) {
+        CacheEntry<V> entry = new CacheEntry<>(value, expires);
+        entry.lastAccess = clock.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Evicts the least recently used values if the cache holds more values
+     * than its maximum size, until there is room for a twentieth of the
+     * maximum size. Only one thread evicts at a time; other threads that add
+     * values in the meantime do not wait for it.
+     */
+    private void evict() {
+        if (entries.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+
+        try {
+            int target = maxSize - maxSize / EVICTION_HEADROOM;
+
+            // The moments of use are copied first, because they change while the candidates are sorted.
+            List<SimpleImmutableEntry<Long, Map.Entry<K, CacheEntry<V>>>> candidates = new ArrayList<>();
+            entries.entrySet().forEach(e -> candidates.add(new SimpleImmutableEntry<>(e.getValue().lastAccess, e)));
+            candidates.sort(Map.Entry.comparingByKey());
+
+            for (SimpleImmutableEntry<Long, Map.Entry<K, CacheEntry<V>>> candidate : candidates) {
+                if (entries.size() <= target) {
+                    break;
+                }
+
+                if (entries.remove(candidate.getValue().getKey(), candidate.getValue().getValue())) {
+                    evictionCount.incrementAndGet();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * A cached value, the moment it expires and the moment it was last used.
+     */
+    private static final class CacheEntry<V> {
+
+        private final V value;
+        private final long expires;
+        private volatile long lastAccess;
+
+        private CacheEntry(V value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expires;
+        }
+
+    }
+
+    /**
+     * A running load of a missing key.
+     */
+    private static final class Load<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private volatile boolean invalidated;
+
+    }
+
+}
@@ -0,0 +1,247 @@
+package nl.soccar.mainserver.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A RankedSet is a sorted set that can also find the rank of an element and
+ * the element at a rank in logarithmic time. The elements are kept in a
+ * randomized balanced search tree (a treap) in which every node knows the size
+ * of its subtree.
+ *
+ * A RankedSet is not thread-safe.
+ *
+ * @author PTS34A
+ * @param <E> The type of the elements of the set.
+ */
+public class RankedSet<E> {
+
+    private final Comparator<? super E> comparator;
+    private final Random random;
+
+    private Node<E> root;
+
+    /**
+     * Constructor used for instantiation of an empty RankedSet object.
+     *
+     * @param comparator The comparator that defines the order of the elements.
+     * Elements that are equal according to the comparator are considered the
+     * same element.
+     */
+    public RankedSet(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+
+        random = new Random();
+    }
+
+    /**
+     * Adds an element to the set.
+     *
+     * @param element The element that is added.
+     * @return True if the element was added, false if it was already in the
+     * set.
+     */
+    public boolean add(E element) {
+        int before = size();
+        root = insert(root, element);
+        return size() > before;
+    }
+
+    /**
+     * Removes an element from the set.
+     *
+     * @param element The element that is removed.
+     * @return True if the element was removed, false if it was not in the set.
+     */
+    public boolean remove(E element) {
+        int before = size();
+        root = delete(root, element);
+        return size() < before;
+    }
+
+    /**
+     * Gets the rank of an element, which is the amount of elements that come
+     * before it.
+     *
+     * @param element The element whose rank is requested.
+     * @return The zero-based rank of the element, or -1 if it is not in the
+     * set.
+     */
+    public int rank(E element) {
+        Node<E> node = root;
+        int rank = 0;
+
+        while (node != null) {
+            int c = comparator.compare(element, node.element);
+            if (c < 0) {
+                node = node.left;
+            } else if (c > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the element at the given rank.
+     *
+     * @param index The zero-based rank of the element.
+     * @return The element at the given rank.
+     * @throws IndexOutOfBoundsException Thrown when the index is negative or
+     * not smaller than the size of the set.
+     */
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index %d is out of bounds for size %d.", index, size()));
+        }
+
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.element;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the elements with a rank in the given range.
+     *
+     * @param from The zero-based rank of the first element, inclusive.
+     * @param to The zero-based rank of the last element, exclusive.
+     * @return The elements in the range, in order.
+     */
+    public List<E> range(int from, int to) {
+        int start = Math.max(0, from);
+        int end = Math.min(size(), to);
+
+        List<E> elements = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            elements.add(get(i));
+        }
+
+        return elements;
+    }
+
+    /**
+     * Removes all elements from the set.
+     */
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * Gets the amount of elements in the set.
+     *
+     * @return The size of the set.
+     */
+    public int size() {
+        return size(root);
+    }
+
+    private Node<E> insert(Node<E> node, E element) {
+        if (node == null) {
+            return new Node<>(element, random.nextInt());
+        }
+
+        int c = comparator.compare(element, node.element);
+        if (c < 0) {
+            node.left = insert(node.left, element);
+            update(node);
+            if (node.left.priority > node.priority) {
+                node = rotateRight(node);
+            }
+        } else if (c > 0) {
+            node.right = insert(node.right, element);
+            update(node);
+            if (node.right.priority > node.priority) {
+                node = rotateLeft(node);
+            }
+        }
+
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E element) {
+        if (node == null) {
+            return null;
+        }
+
+        int c = comparator.compare(element, node.element);
+        if (c < 0) {
+            node.left = delete(node.left, element);
+        } else if (c > 0) {
+            node.right = delete(node.right, element);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else if (node.left.priority > node.right.priority) {
+            node = rotateRight(node);
+            node.right = delete(node.right, element);
+        } else {
+            node = rotateLeft(node);
+            node.left = delete(node.left, element);
+        }
+
+        update(node);
+        return node;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * A node of the tree with its element, its random priority and the size
+     * of its subtree.
+     */
+    private static final class Node<E> {
+
+        private final E element;
+        private final int priority;
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E element, int priority) {
+            this.element = element;
+            this.priority = priority;
+        }
+
+    }
+
+}
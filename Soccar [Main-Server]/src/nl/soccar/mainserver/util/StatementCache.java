@@ -0,0 +1,241 @@
+package nl.soccar.mainserver.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A StatementCache keeps the prepared and callable statements of a single
+ * physical connection, keyed by their SQL text, so frequently used queries and
+ * stored procedure calls are only prepared once. The cache is bounded and
+ * evicts the least recently used statement when it is full.
+ *
+ * Statements handed out by the cache are returned to it when they are closed.
+ *
+ * @author PTS34A
+ */
+final class StatementCache {
+
+    private static final Logger LOGGER = Logger.getLogger(StatementCache.class.getSimpleName());
+
+    private final Connection connection;
+    private final int maxSize;
+    private final Map<String, CachedStatement> statements;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    /**
+     * Constructor used for instantiation of a StatementCache object.
+     *
+     * @param connection The physical connection whose statements are cached.
+     * @param maxSize The maximum amount of statements that are cached.
+     * @param hits The counter that is incremented when a statement is reused.
+     * @param misses The counter that is incremented when a statement needs to
+     * be prepared.
+     * @param evictions The counter that is incremented when a statement is
+     * evicted from the cache.
+     */
+    StatementCache(Connection connection, int maxSize, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+
+        statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Gets a prepared statement for the given SQL text, preparing it only if
+     * it is not cached yet.
+     *
+     * @param sql The SQL query statement.
+     * @return The prepared statement that is returned to the cache on close.
+     * @throws SQLException Thrown when the statement could not be prepared.
+     */
+    PreparedStatement prepareStatement(String sql) throws SQLException {
+        return get(sql, false);
+    }
+
+    /**
+     * Gets a callable statement for the given SQL text, preparing it only if
+     * it is not cached yet.
+     *
+     * @param sql The SQL query call.
+     * @return The callable statement that is returned to the cache on close.
+     * @throws SQLException Thrown when the statement could not be prepared.
+     */
+    CallableStatement prepareCall(String sql) throws SQLException {
+        return (CallableStatement) get(sql, true);
+    }
+
+    /**
+     * Closes all cached statements.
+     */
+    synchronized void close() {
+        statements.values().forEach(CachedStatement::closeQuietly);
+        statements.clear();
+    }
+
+    /**
+     * Checks out the cached statement for the given SQL text, or prepares a
+     * new one on a cache miss. If the cached statement is already checked out,
+     * an uncached statement is prepared instead.
+     *
+     * @param sql The SQL text of the statement.
+     * @param callable True if the statement is a stored procedure call.
+     * @return A handle to the checked out statement.
+     * @throws SQLException Thrown when the statement could not be prepared.
+     */
+    private synchronized PreparedStatement get(String sql, boolean callable) throws SQLException {
+        String key = (callable ? "call:" : "statement:") + sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            hits.incrementAndGet();
+        } else if (cached != null) {
+            misses.incrementAndGet();
+            return prepare(sql, callable);
+        } else {
+            misses.incrementAndGet();
+            cached = new CachedStatement(key, prepare(sql, callable));
+            statements.put(key, cached);
+            evict();
+        }
+
+        cached.inUse = true;
+        return cached.newHandle(callable);
+    }
+
+    /**
+     * Prepares a new statement on the physical connection.
+     *
+     * @param sql The SQL text of the statement.
+     * @param callable True if the statement is a stored procedure call.
+     * @return The prepared statement.
+     * @throws SQLException Thrown when the statement could not be prepared.
+     */
+    private PreparedStatement prepare(String sql, boolean callable) throws SQLException {
+        return callable ? connection.prepareCall(sql) : connection.prepareStatement(sql);
+    }
+
+    /**
+     * Evicts the least recently used statements that are not checked out
+     * until the cache is within its bounds.
+     */
+    private void evict() {
+        List<CachedStatement> evicted = new ArrayList<>();
+
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (statements.size() > maxSize && it.hasNext()) {
+            CachedStatement cached = it.next();
+            if (!cached.inUse) {
+                it.remove();
+                evicted.add(cached);
+            }
+        }
+
+        evictions.addAndGet(evicted.size());
+        evicted.forEach(CachedStatement::closeQuietly);
+    }
+
+    /**
+     * Returns a checked out statement to the cache.
+     *
+     * @param cached The statement that is returned.
+     */
+    private synchronized void checkIn(CachedStatement cached) {
+        cached.inUse = false;
+
+        try {
+            cached.statement.clearParameters();
+            cached.statement.clearBatch();
+        } catch (SQLException e) {
+            statements.remove(cached.key);
+            cached.closeQuietly();
+        }
+    }
+
+    /**
+     * A statement that is owned by this cache.
+     */
+    private final class CachedStatement {
+
+        private final String key;
+        private final PreparedStatement statement;
+        private boolean inUse;
+
+        private CachedStatement(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        /**
+         * Creates a statement handle for a single use. Closing the handle
+         * returns the statement to the cache.
+         *
+         * @param callable True if the handle must implement CallableStatement.
+         * @return The statement handle.
+         */
+        private PreparedStatement newHandle(boolean callable) {
+            AtomicBoolean released = new AtomicBoolean();
+
+            InvocationHandler handler = (Object proxy, Method method, Object[] args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        if (released.compareAndSet(false, true)) {
+                            checkIn(this);
+                        }
+                        return null;
+                    case "isClosed":
+                        return released.get() || statement.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        if (released.get()) {
+                            throw new SQLException("The statement has already been closed.");
+                        }
+                        try {
+                            return method.invoke(statement, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            };
+
+            Class<?> type = callable ? CallableStatement.class : PreparedStatement.class;
+            return (PreparedStatement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        /**
+         * Closes the underlying statement, ignoring any errors.
+         */
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "An error occurred while closing a cached statement.", e);
+            }
+        }
+
+    }
+
+}
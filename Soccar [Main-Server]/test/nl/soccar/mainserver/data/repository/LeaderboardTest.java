@@ -0,0 +1,96 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.model.LeaderboardCategory;
+import nl.soccar.mainserver.data.model.LeaderboardEntry;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.data.repository.Leaderboard
+ * class.
+ *
+ * @author PTS34A
+ */
+public class LeaderboardTest {
+
+    // Declaration of test objects.
+    private Leaderboard leaderboard;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        leaderboard = new Leaderboard();
+        leaderboard.load(Arrays.asList(
+                new Statistics("alice", 10, 1, 3, 1, 4),
+                new Statistics("bob", 5, 8, 1, 1, 2),
+                new Statistics("carol", 7, 2, 4, 4, 8),
+                new Statistics("dave", 0, 0, 0, 0, 0)));
+    }
+
+    /**
+     * Tests if the best players of every category are returned in order.
+     */
+    @Test
+    public void topTest() {
+        List<LeaderboardEntry> goals = leaderboard.getTop(LeaderboardCategory.GOALS, 2);
+        assertEquals(2, goals.size());
+        assertEquals("alice", goals.get(0).getUsername());
+        assertEquals(1, goals.get(0).getRank());
+        assertEquals("carol", goals.get(1).getUsername());
+
+        assertEquals("bob", leaderboard.getTop(LeaderboardCategory.ASSISTS, 1).get(0).getUsername());
+        assertEquals("carol", leaderboard.getTop(LeaderboardCategory.WINS, 1).get(0).getUsername());
+        assertEquals(0.75, leaderboard.getTop(LeaderboardCategory.WIN_RATIO, 1).get(0).getScore(), 0.001);
+        assertEquals(4, leaderboard.getTop(LeaderboardCategory.GOALS, 10).size());
+    }
+
+    /**
+     * Tests if updates move a player to its new rank, and if updates of
+     * players that are not on the leaderboard are ignored until they are
+     * added.
+     */
+    @Test
+    public void applyTest() {
+        StatisticsDelta delta = new StatisticsDelta("bob");
+        delta.addGoals(6);
+        leaderboard.apply(delta);
+
+        assertEquals("bob", leaderboard.getTop(LeaderboardCategory.GOALS, 1).get(0).getUsername());
+        assertEquals(11, leaderboard.getTop(LeaderboardCategory.GOALS, 1).get(0).getStatistics().getGoals());
+
+        StatisticsDelta newPlayer = new StatisticsDelta("erin");
+        newPlayer.addAssists(1);
+        leaderboard.apply(newPlayer);
+        assertEquals(4, leaderboard.size());
+
+        leaderboard.add("erin");
+        leaderboard.apply(newPlayer);
+        assertEquals(5, leaderboard.size());
+        assertEquals(1, leaderboard.getNeighbours(LeaderboardCategory.ASSISTS, "erin", 0).get(0).getStatistics().getAssists());
+    }
+
+    /**
+     * Tests if the rank of a player is returned together with its neighbours.
+     */
+    @Test
+    public void neighboursTest() {
+        List<LeaderboardEntry> entries = leaderboard.getNeighbours(LeaderboardCategory.GOALS, "carol", 1);
+        assertEquals(3, entries.size());
+        assertEquals("alice", entries.get(0).getUsername());
+        assertEquals("carol", entries.get(1).getUsername());
+        assertEquals(2, entries.get(1).getRank());
+        assertEquals("bob", entries.get(2).getUsername());
+
+        assertEquals(2, leaderboard.getNeighbours(LeaderboardCategory.GOALS, "dave", 1).size());
+        assertTrue(leaderboard.getNeighbours(LeaderboardCategory.GOALS, "unknown", 1).isEmpty());
+    }
+
+}
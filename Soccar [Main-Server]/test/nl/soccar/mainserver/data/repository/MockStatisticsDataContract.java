@@ -0,0 +1,94 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.contract.IStatisticsDataContract;
+import nl.soccar.mainserver.data.model.EventWriteResult;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+
+/**
+ * Mock for the nl.soccar.mainserver.data.contract.IStatisticsDataContract
+ * interface that records every batch of statistics it receives.
+ *
+ * @author PTS34A
+ */
+public class MockStatisticsDataContract implements IStatisticsDataContract {
+
+    private final List<List<StatisticsDelta>> batches = new ArrayList<>();
+    private final Set<String> eventIds = new HashSet<>();
+
+    private List<Statistics> allStatistics = new ArrayList<>();
+    private boolean available = true;
+
+    @Override
+    public synchronized boolean addStatistics(Collection<StatisticsDelta> deltas) {
+        if (!available) {
+            return false;
+        }
+
+        batches.add(new ArrayList<>(deltas));
+        write(deltas);
+        return true;
+    }
+
+    @Override
+    public synchronized EventWriteResult addStatistics(String eventId, Collection<StatisticsDelta> deltas) {
+        if (!available) {
+            return EventWriteResult.FAILED;
+        }
+
+        if (!eventIds.add(eventId)) {
+            return EventWriteResult.DUPLICATE;
+        }
+
+        batches.add(new ArrayList<>(deltas));
+        write(deltas);
+        return EventWriteResult.WRITTEN;
+    }
+
+    private void write(Collection<StatisticsDelta> deltas) {
+        deltas.forEach(delta -> allStatistics.replaceAll(s -> s.getUsername().equals(delta.getUsername()) ? delta.applyTo(s) : s));
+    }
+
+    @Override
+    public Statistics getStatistics(String username) {
+        return new Statistics(username, 0, 0, 0, 0, 0);
+    }
+
+    @Override
+    public synchronized List<Statistics> getStatistics(Collection<String> usernames) {
+        if (!available) {
+            return null;
+        }
+
+        List<Statistics> statistics = new ArrayList<>();
+        usernames.forEach(username -> statistics.add(getStatistics(username)));
+        return statistics;
+    }
+
+    @Override
+    public synchronized List<Statistics> getAllStatistics() {
+        return available ? new ArrayList<>(allStatistics) : null;
+    }
+
+    public synchronized List<List<StatisticsDelta>> getBatches() {
+        return batches;
+    }
+
+    public synchronized void setAvailable(boolean available) {
+        this.available = available;
+    }
+
+    public synchronized void setAllStatistics(List<Statistics> allStatistics) {
+        this.allStatistics = new ArrayList<>(allStatistics);
+    }
+
+    public synchronized void addEventId(String eventId) {
+        eventIds.add(eventId);
+    }
+
+}
@@ -0,0 +1,133 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import nl.soccar.library.enumeration.Privilege;
+import nl.soccar.mainserver.data.contract.IUserDataContract;
+
+/**
+ * Benchmark that compares the POOLED and VIRTUAL_THREADS execution modes of a
+ * repository. A burst of concurrent lookups is sent to a UserRepository whose
+ * context simulates a blocking database call, after which the duration, the
+ * amount of completed and rejected lookups and the peak amount of threads are
+ * printed for both modes.
+ *
+ * Run with a Java 21 runtime to measure virtual threads; on older runtimes the
+ * VIRTUAL_THREADS mode falls back to POOLED.
+ *
+ * @author PTS34A
+ */
+public class RepositoryExecutionBenchmark {
+
+    private static final int CONCURRENT_LOOKUPS = 2000;
+    private static final long QUERY_TIME = 5; // in milliseconds
+
+    /**
+     * Constructor that is intentionally marked private so a
+     * RepositoryExecutionBenchmark object can never be initiated outside this
+     * class.
+     */
+    private RepositoryExecutionBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark for both execution modes.
+     *
+     * @param args Commandline arguments that are not used.
+     */
+    public static void main(String[] args) {
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            run(mode);
+        }
+    }
+
+    /**
+     * Sends a burst of lookups to a repository in the given execution mode and
+     * prints the results.
+     *
+     * @param mode The execution mode of the repository.
+     */
+    private static void run(ExecutionMode mode) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        UserRepository repository = new UserRepository(new SlowUserDataContract(), mode);
+        List<CompletableFuture<Boolean>> lookups = new ArrayList<>();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CONCURRENT_LOOKUPS; i++) {
+            lookups.add(repository.checkIfExistsAsync("user" + i));
+        }
+
+        int completed = 0;
+        int rejected = 0;
+        for (CompletableFuture<Boolean> lookup : lookups) {
+            try {
+                lookup.get();
+                completed++;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    rejected++;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        long duration = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%-16s (actual %-16s) lookups: %d, completed: %d, rejected: %d, duration: %d ms, peak threads: %d%n",
+                mode, repository.getExecutionMode(), CONCURRENT_LOOKUPS, completed, rejected, duration, threads.getPeakThreadCount());
+
+        repository.close();
+    }
+
+    /**
+     * User data context whose lookups block for a fixed amount of time, like a
+     * database call does.
+     */
+    private static class SlowUserDataContract implements IUserDataContract {
+
+        @Override
+        public boolean add(String username, byte[] password) {
+            return query();
+        }
+
+        @Override
+        public void changePrivilege(String username, Privilege privilege) {
+            query();
+        }
+
+        @Override
+        public boolean checkIfExists(String username) {
+            return query();
+        }
+
+        @Override
+        public boolean checkPassword(String username, byte[] hashedPassword) {
+            return query();
+        }
+
+        @Override
+        public Privilege getPrivilege(String username) {
+            query();
+            return Privilege.NORMAL;
+        }
+
+        private boolean query() {
+            try {
+                Thread.sleep(QUERY_TIME);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+
+    }
+
+}
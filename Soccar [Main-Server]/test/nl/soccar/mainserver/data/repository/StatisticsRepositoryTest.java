@@ -0,0 +1,225 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import nl.soccar.library.Statistics;
+import nl.soccar.mainserver.data.model.LeaderboardCategory;
+import nl.soccar.mainserver.data.model.LeaderboardEntry;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the
+ * nl.soccar.mainserver.data.repository.StatisticsRepository class.
+ *
+ * @author PTS34A
+ */
+public class StatisticsRepositoryTest {
+
+    // Declaration of test objects.
+    private MockStatisticsDataContract context;
+    private StatisticsRepository repository;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        context = new MockStatisticsDataContract();
+        repository = new StatisticsRepository(context);
+    }
+
+    /**
+     * Closes the repository after every test.
+     */
+    @After
+    public void tearDown() {
+        repository.close();
+    }
+
+    /**
+     * Tests if updates that are still buffered are included when statistics
+     * are loaded.
+     */
+    @Test
+    public void loadIncludesBufferedUpdatesTest() {
+        repository.addGoals("username", 2);
+        repository.incrementGamesWon("username");
+
+        Statistics statistics = repository.getStatistics("username");
+        assertEquals(2, statistics.getGoals());
+        assertEquals(1, statistics.getGamesWon());
+        assertEquals(1, repository.getStatisticsCache().getMissCount());
+    }
+
+    /**
+     * Tests if updates are written through to cached statistics, so they are
+     * served from the cache.
+     */
+    @Test
+    public void writeThroughTest() {
+        repository.getStatistics("username");
+
+        repository.addGoals("username", 3);
+        repository.addAssists("eventId", "username", 1);
+        repository.addAssists("eventId", "username", 1);
+
+        Statistics statistics = repository.getStatistics("username");
+        assertEquals(3, statistics.getGoals());
+        assertEquals(1, statistics.getAssists());
+        assertEquals(1, repository.getStatisticsCache().getHitCount());
+        assertEquals(1, repository.getDuplicateCount());
+    }
+
+    /**
+     * Tests if the statistics of multiple players are served from the cache
+     * and the persistency service, including buffered updates.
+     */
+    @Test
+    public void bulkTest() {
+        repository.getStatistics("cached");
+        repository.addGoals("cached", 1);
+        repository.addGoals("loaded", 2);
+
+        List<Statistics> statistics = repository.getStatistics(Arrays.asList("cached", "loaded"));
+        assertEquals(2, statistics.size());
+        assertEquals(1, statistics.stream().filter(s -> s.getUsername().equals("cached")).findFirst().get().getGoals());
+        assertEquals(2, statistics.stream().filter(s -> s.getUsername().equals("loaded")).findFirst().get().getGoals());
+        assertEquals(1, repository.getStatisticsCache().getHitCount());
+    }
+
+    /**
+     * Tests if a failed bulk read is reported instead of returning no players.
+     */
+    @Test
+    public void bulkFailureTest() {
+        context.setAvailable(false);
+        assertNull(repository.getStatistics(Arrays.asList("cached", "loaded")));
+
+        context.setAvailable(true);
+        assertEquals(2, repository.getStatistics(Arrays.asList("cached", "loaded")).size());
+    }
+
+    /**
+     * Tests if a match that the persistency service has written before, for
+     * example before a restart, changes neither the statistics nor the
+     * leaderboard.
+     */
+    @Test
+    public void duplicateMatchTest() {
+        context.addEventId("matchId");
+        repository.getStatistics("username");
+
+        repository.submitMatchResult("matchId", "roomName", Collections.singletonList(new Statistics("username", 2, 1, 1, 0, 1)));
+        repository.close();
+
+        assertEquals(0, repository.getStatisticsCache().getIfPresent("username").getGoals());
+        assertTrue(repository.getTopPlayers(LeaderboardCategory.GOALS, 10).isEmpty());
+        assertTrue(context.getBatches().isEmpty());
+        assertEquals(1, repository.getDuplicateCount());
+    }
+
+    /**
+     * Tests if a buffered event that the persistency service has written
+     * before is removed from the cached statistics and is not applied to the
+     * leaderboard.
+     */
+    @Test
+    public void duplicateEventTest() {
+        context.addEventId("eventId");
+        repository.getStatistics("username");
+
+        repository.addGoals("eventId", "username", 2);
+        repository.getWriteBuffer().flush();
+
+        assertEquals(0, repository.getStatistics("username").getGoals());
+        assertTrue(repository.getTopPlayers(LeaderboardCategory.GOALS, 10).isEmpty());
+        assertTrue(context.getBatches().isEmpty());
+        assertEquals(1, repository.getDuplicateCount());
+    }
+
+    /**
+     * Tests if the id of an event that is rejected is forgotten, so a retry of
+     * the event is accepted.
+     */
+    @Test
+    public void rejectedEventTest() {
+        repository.getWriteBuffer().close();
+
+        repository.addGoals("eventId", "username", 2);
+        repository.addGoals("eventId", "username", 2);
+
+        assertEquals(0, repository.getDuplicateCount());
+    }
+
+    /**
+     * Tests if a leaderboard that could not be loaded is loaded by a retry,
+     * and if only players that exist are ranked.
+     */
+    @Test
+    public void leaderboardLoadTest() {
+        repository.close();
+        context.setAvailable(false);
+        repository = new StatisticsRepository(context);
+        assertFalse(repository.isLeaderboardLoaded());
+
+        context.setAvailable(true);
+        context.setAllStatistics(Collections.singletonList(new Statistics("username", 1, 0, 0, 0, 0)));
+        assertTrue(repository.reloadLeaderboard());
+        assertTrue(repository.isLeaderboardLoaded());
+
+        repository.addGoals("username", 2);
+        repository.addGoals("unknown", 5);
+        repository.addPlayer("newPlayer");
+
+        List<LeaderboardEntry> top = repository.getTopPlayers(LeaderboardCategory.GOALS, 10);
+        assertEquals(2, top.size());
+        assertEquals("username", top.get(0).getUsername());
+        assertEquals(3, top.get(0).getStatistics().getGoals());
+        assertEquals("newPlayer", top.get(1).getUsername());
+    }
+
+    /**
+     * Tests if a reload keeps buffered updates and does not count flushed
+     * events twice, and if a buffered event that was written before is taken
+     * off the leaderboard again.
+     */
+    @Test
+    public void leaderboardReloadTest() {
+        context.setAllStatistics(Collections.singletonList(new Statistics("username", 1, 0, 0, 0, 0)));
+        assertTrue(repository.reloadLeaderboard());
+
+        repository.addGoals("username", 2);
+        assertTrue(repository.reloadLeaderboard());
+        assertEquals(3, goals("username"));
+
+        repository.addGoals("eventId", "username", 1);
+        repository.getWriteBuffer().flush();
+        assertEquals(4, goals("username"));
+        assertTrue(repository.reloadLeaderboard());
+        assertEquals(4, goals("username"));
+
+        context.addEventId("duplicateId");
+        repository.addGoals("duplicateId", "username", 5);
+        assertEquals(9, goals("username"));
+        repository.getWriteBuffer().flush();
+        assertEquals(4, goals("username"));
+    }
+
+    /**
+     * Gets the amount of goals of a player on the leaderboard.
+     *
+     * @param username The username of the player.
+     * @return The amount of goals.
+     */
+    private int goals(String username) {
+        return repository.getPlayerRank(username, LeaderboardCategory.GOALS, 0).get(0).getStatistics().getGoals();
+    }
+
+}
@@ -0,0 +1,184 @@
+package nl.soccar.mainserver.data.repository;
+
+import java.util.Collections;
+import java.util.List;
+import nl.soccar.mainserver.data.model.StatisticsDelta;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the
+ * nl.soccar.mainserver.data.repository.StatisticsWriteBuffer class.
+ *
+ * @author PTS34A
+ */
+public class StatisticsWriteBufferTest {
+
+    private static final long FLUSH_INTERVAL = 60000; // in milliseconds
+    private static final int FLUSH_THRESHOLD = 100;
+
+    // Declaration of test objects.
+    private MockStatisticsDataContract context;
+    private StatisticsWriteBuffer buffer;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        context = new MockStatisticsDataContract();
+        buffer = new StatisticsWriteBuffer(context, FLUSH_INTERVAL, FLUSH_THRESHOLD);
+    }
+
+    /**
+     * Tests if multiple updates of the same player are coalesced into one
+     * delta that is written on close.
+     */
+    @Test
+    public void coalesceTest() {
+        buffer.add("username", d -> d.addGoals(2));
+        buffer.add("username", d -> d.addGoals(3));
+        buffer.add("username", StatisticsDelta::incrementGamesWon);
+        buffer.add("other", StatisticsDelta::incrementGamesPlayed);
+        assertEquals(2, buffer.getPendingCount());
+
+        buffer.close();
+
+        List<List<StatisticsDelta>> batches = context.getBatches();
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+
+        StatisticsDelta delta = batches.get(0).stream().filter(d -> d.getUsername().equals("username")).findFirst().get();
+        assertEquals(5, delta.getGoals());
+        assertEquals(1, delta.getGamesWon());
+        assertEquals(0, delta.getGamesPlayed());
+    }
+
+    /**
+     * Tests if a batch that could not be written is kept for the next flush.
+     */
+    @Test
+    public void retryTest() {
+        context.setAvailable(false);
+        buffer.add("username", d -> d.addAssists(1));
+        buffer.flush();
+        assertEquals(1, buffer.getFailedFlushCount());
+        assertEquals(1, buffer.getPendingCount());
+
+        context.setAvailable(true);
+        buffer.add("username", d -> d.addAssists(1));
+        buffer.close();
+
+        assertEquals(1, context.getBatches().size());
+        assertEquals(2, context.getBatches().get(0).get(0).getAssists());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    /**
+     * Tests if events are not coalesced and an event that is added or written
+     * twice is only counted once.
+     */
+    @Test
+    public void eventTest() {
+        StatisticsDelta delta = new StatisticsDelta("username");
+        delta.addGoals(1);
+
+        buffer.addEvent("event1", Collections.singletonList(delta));
+        buffer.addEvent("event1", Collections.singletonList(delta));
+        buffer.addEvent("event2", Collections.singletonList(delta));
+        assertEquals(2, buffer.getPendingEventCount());
+        assertEquals(0, buffer.getPendingCount());
+
+        buffer.flush();
+        buffer.addEvent("event2", Collections.singletonList(delta));
+        buffer.close();
+
+        assertEquals(2, context.getBatches().size());
+        assertEquals(0, buffer.getPendingEventCount());
+    }
+
+    /**
+     * Tests if an event that could not be written is kept for the next flush.
+     */
+    @Test
+    public void eventRetryTest() {
+        StatisticsDelta delta = new StatisticsDelta("username");
+        delta.incrementGamesWon();
+
+        context.setAvailable(false);
+        buffer.addEvent("event", Collections.singletonList(delta));
+        buffer.flush();
+        assertEquals(1, buffer.getFailedFlushCount());
+        assertEquals(1, buffer.getPendingEventCount());
+
+        context.setAvailable(true);
+        buffer.close();
+
+        assertEquals(1, context.getBatches().size());
+        assertEquals(1, context.getBatches().get(0).get(0).getGamesWon());
+    }
+
+    /**
+     * Tests if updates of new players and new events are rejected while the
+     * buffer is full, and updates of buffered players are still coalesced.
+     */
+    @Test
+    public void capacityTest() {
+        buffer.close();
+        buffer = new StatisticsWriteBuffer(context, FLUSH_INTERVAL, FLUSH_THRESHOLD, 2);
+
+        assertTrue(buffer.add("username", StatisticsDelta::incrementGamesPlayed));
+        assertTrue(buffer.addEvent("event", Collections.singletonList(new StatisticsDelta("username"))));
+        assertFalse(buffer.add("other", StatisticsDelta::incrementGamesPlayed));
+        assertFalse(buffer.addEvent("otherEvent", Collections.singletonList(new StatisticsDelta("other"))));
+        assertTrue(buffer.add("username", StatisticsDelta::incrementGamesWon));
+        assertEquals(2, buffer.getRejectedCount());
+
+        buffer.close();
+        assertEquals(1, context.getBatches().get(1).get(0).getGamesWon());
+    }
+
+    /**
+     * Tests if failed flushes back off exponentially without dropping
+     * updates, and if a successful flush resets the retry delay.
+     */
+    @Test
+    public void backoffTest() {
+        buffer.close();
+        buffer = new StatisticsWriteBuffer(context, 10000, FLUSH_THRESHOLD);
+        context.setAvailable(false);
+        buffer.add("username", StatisticsDelta::incrementGamesLost);
+
+        buffer.flush();
+        assertEquals(10000, buffer.getRetryDelay());
+        buffer.flush();
+        assertEquals(20000, buffer.getRetryDelay());
+        for (int i = 0; i < 100; i++) {
+            buffer.flush();
+        }
+        assertEquals(60000, buffer.getRetryDelay());
+        assertEquals(1, buffer.getPendingCount());
+
+        context.setAvailable(true);
+        buffer.flush();
+        assertEquals(0, buffer.getRetryDelay());
+        assertEquals(1, context.getBatches().get(0).get(0).getGamesLost());
+    }
+
+    /**
+     * Tests if updates that are added after the buffer is closed are rejected.
+     */
+    @Test
+    public void closedTest() {
+        buffer.close();
+
+        assertFalse(buffer.add("username", StatisticsDelta::incrementGamesPlayed));
+        assertFalse(buffer.addEvent("event", Collections.singletonList(new StatisticsDelta("username"))));
+        assertEquals(0, buffer.getPendingCount());
+        assertEquals(0, buffer.getPendingEventCount());
+    }
+
+}
@@ -0,0 +1,80 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Collections;
+import java.util.Map;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.FailureDetector class.
+ *
+ * @author PTS34A
+ */
+public class FailureDetectorTest {
+
+    private static final long INTERVAL = 2000; // in milliseconds
+
+    // Declaration of test objects.
+    private FailureDetector detector;
+    private GameServerHealth health;
+    private Map<String, GameServerHealth> servers;
+    private long now;
+
+    /**
+     * Instantiation of test objects. The game server responds to ten pings
+     * at a regular interval.
+     */
+    @Before
+    public void setUp() {
+        detector = new FailureDetector(1.0, 8.0);
+        health = new GameServerHealth(INTERVAL, 0);
+        servers = Collections.singletonMap("server", health);
+
+        for (now = 1000; now <= 19000; now += INTERVAL) {
+            health.recordPing(5, now);
+            assertTrue(detector.evaluate(servers, now).isEmpty());
+        }
+        now -= INTERVAL;
+    }
+
+    /**
+     * Tests if a single missed ping only makes the game server suspected and
+     * if it is no longer suspected when it responds again.
+     */
+    @Test
+    public void transientMissTest() {
+        now += INTERVAL;
+        health.recordFailure();
+
+        assertTrue(detector.evaluate(servers, now).isEmpty());
+        assertTrue(health.isSuspected());
+
+        now += INTERVAL;
+        health.recordPing(5, now);
+
+        assertTrue(detector.evaluate(servers, now).isEmpty());
+        assertFalse(health.isSuspected());
+        assertEquals(1, detector.getFalsePositiveCount());
+    }
+
+    /**
+     * Tests if a game server that stops responding is considered failed
+     * after a few missed pings.
+     */
+    @Test
+    public void failureTest() {
+        int missed = 0;
+        while (detector.evaluate(servers, now + INTERVAL).isEmpty() && missed < 10) {
+            now += INTERVAL;
+            health.recordFailure();
+            missed++;
+        }
+
+        assertTrue(missed >= 1 && missed <= 3);
+        assertEquals(1, detector.getFailureCount());
+    }
+
+}
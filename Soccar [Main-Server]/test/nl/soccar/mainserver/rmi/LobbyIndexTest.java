@@ -0,0 +1,65 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Arrays;
+import nl.soccar.library.SessionData;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.LobbyIndex class.
+ *
+ * @author PTS34A
+ */
+public class LobbyIndexTest {
+
+    // Declaration of test object.
+    private LobbyIndex index;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        index = new LobbyIndex(1, Arrays.asList(
+                new SessionData("127.0.0.1", "Delta", "Host", false),
+                new SessionData("127.0.0.1", "Alpha", "Host", true),
+                new SessionData("127.0.0.1", "Charlie", "Host", false),
+                new SessionData("127.0.0.1", "Alpine", "Host", false),
+                new SessionData("127.0.0.1", "Bravo", "Host", false)));
+    }
+
+    /**
+     * Tests if the sessions are sorted by room name and paged.
+     */
+    @Test
+    public void pageTest() {
+        LobbyPage page = index.query(new LobbyQuery(null, false, null, LobbySortOrder.ROOM_NAME, 1, 2));
+
+        assertEquals(2, page.getSessions().size());
+        assertEquals("Alpine", page.getSessions().get(0).getRoomName());
+        assertEquals("Bravo", page.getSessions().get(1).getRoomName());
+        assertTrue(page.hasMore());
+        assertEquals(1, page.getVersion());
+    }
+
+    /**
+     * Tests if the sessions are filtered on room name prefix and password.
+     */
+    @Test
+    public void filterTest() {
+        LobbyPage page = index.query(new LobbyQuery(null, false, "Alp", LobbySortOrder.ROOM_NAME, 0, 10));
+        assertEquals(2, page.getSessions().size());
+        assertFalse(page.hasMore());
+
+        page = index.query(new LobbyQuery(false, false, "Alp", LobbySortOrder.OCCUPANCY_DESCENDING, 0, 10));
+        assertEquals(1, page.getSessions().size());
+        assertEquals("Alpine", page.getSessions().get(0).getRoomName());
+
+        page = index.query(new LobbyQuery(null, false, "Echo", LobbySortOrder.ROOM_NAME, 0, 10));
+        assertEquals(0, page.getSessions().size());
+    }
+
+}
@@ -0,0 +1,163 @@
+package nl.soccar.mainserver.rmi;
+
+import java.rmi.RemoteException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BooleanSupplier;
+import nl.soccar.library.SessionData;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.LobbyNotifier class.
+ *
+ * @author PTS34A
+ */
+public class LobbyNotifierTest {
+
+    private static final long WAIT_TIMEOUT = 2000; // in milliseconds
+
+    // Declaration of test objects.
+    private SessionRegistry registry;
+    private LobbyNotifier notifier;
+    private IGameServerForMainServer server;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        registry = new SessionRegistry();
+        notifier = new LobbyNotifier(registry, 2, 10, 1000);
+        server = new MockGameServerForMainServer();
+
+        registry.addServer(server);
+        registry.add(server, new SessionData("127.0.0.1", "Room1", "Host", false));
+    }
+
+    /**
+     * Stops the notifier after every test.
+     */
+    @After
+    public void tearDown() {
+        notifier.close();
+    }
+
+    /**
+     * Tests if a new subscriber receives all sessions and then only the
+     * changes.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void pushTest() throws InterruptedException {
+        List<LobbyDelta> received = new CopyOnWriteArrayList<>();
+        notifier.subscribe(received::add);
+        waitFor(() -> received.size() == 1);
+
+        assertTrue(received.get(0).isFullResync());
+        assertEquals(1, received.get(0).getAdded().size());
+
+        registry.add(server, new SessionData("127.0.0.1", "Room2", "Host", false));
+        notifier.notifyChanged();
+        waitFor(() -> received.size() == 2);
+
+        assertFalse(received.get(1).isFullResync());
+        assertEquals("Room2", received.get(1).getAdded().get(0).getRoomName());
+    }
+
+    /**
+     * Tests if a subscriber whose push fails is dropped.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void dropTest() throws InterruptedException {
+        notifier.subscribe(delta -> {
+            throw new RemoteException("Client is gone.");
+        });
+        waitFor(() -> notifier.getSubscriberCount() == 0);
+
+        assertEquals(1, notifier.getDroppedCount());
+    }
+
+    /**
+     * Tests if a healthy subscriber still receives its pushes while more
+     * subscribers block in their push than there are dispatcher threads.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void stalledSubscribersTest() throws InterruptedException {
+        notifier.close();
+        notifier = new LobbyNotifier(registry, 2, 10, 200);
+
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 3; i++) {
+                notifier.subscribe(delta -> block(release));
+            }
+
+            List<LobbyDelta> received = new CopyOnWriteArrayList<>();
+            notifier.subscribe(received::add);
+            waitFor(() -> received.size() == 1);
+            assertEquals(1, received.size());
+
+            registry.add(server, new SessionData("127.0.0.1", "Room2", "Host", false));
+            notifier.notifyChanged();
+            waitFor(() -> received.size() == 2);
+
+            assertEquals(2, received.size());
+            assertEquals("Room2", received.get(1).getAdded().get(0).getRoomName());
+            waitFor(() -> notifier.getLostThreadCount() == 3);
+            assertEquals(3, notifier.getDroppedCount());
+            assertEquals(3, notifier.getLostThreadCount());
+        } finally {
+            release.countDown();
+        }
+
+        waitFor(() -> notifier.getLostThreadCount() == 0);
+        assertEquals(0, notifier.getLostThreadCount());
+    }
+
+    /**
+     * Blocks until the given latch is released, like a remote call to a
+     * client that does not respond, which can not be interrupted either.
+     *
+     * @param release The latch that ends the block.
+     */
+    private static void block(CountDownLatch release) {
+        boolean interrupted = false;
+        while (release.getCount() > 0) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until the given condition holds or the wait times out.
+     *
+     * @param condition The condition to wait for.
+     * @throws InterruptedException Thrown when the wait is interrupted.
+     */
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+}
@@ -0,0 +1,88 @@
+package nl.soccar.mainserver.rmi;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.LobbyQuery class.
+ *
+ * @author PTS34A
+ */
+public class LobbyQueryTest {
+
+    /**
+     * Tests if the constructor replaces invalid values.
+     */
+    @Test
+    public void constructorTest() {
+        LobbyQuery query = new LobbyQuery(null, false, null, null, -1, LobbyQuery.MAX_LIMIT + 1);
+
+        assertEquals(LobbySortOrder.ROOM_NAME, query.getSortOrder());
+        assertEquals(0, query.getOffset());
+        assertEquals(LobbyQuery.MAX_LIMIT, query.getLimit());
+    }
+
+    /**
+     * Tests if a deserialized query whose fields were never checked by the
+     * constructor is validated.
+     *
+     * @throws Exception Thrown when the query can not be changed or serialized.
+     */
+    @Test
+    public void deserializationTest() throws Exception {
+        LobbyQuery query = new LobbyQuery(null, false, null, LobbySortOrder.ROOM_NAME, 0, 10);
+        set(query, "sortOrder", null);
+        set(query, "offset", -1);
+        set(query, "limit", -1);
+
+        LobbyQuery copy = serialize(query);
+        assertEquals(LobbySortOrder.ROOM_NAME, copy.getSortOrder());
+        assertEquals(0, copy.getOffset());
+        assertEquals(0, copy.getLimit());
+
+        set(query, "limit", Integer.MAX_VALUE);
+        assertEquals(LobbyQuery.MAX_LIMIT, serialize(query).getLimit());
+    }
+
+    /**
+     * Changes a field of the given query, bypassing the constructor.
+     *
+     * @param query The query that is changed.
+     * @param name The name of the field.
+     * @param value The new value of the field.
+     * @throws ReflectiveOperationException Thrown when the field can not be
+     * changed.
+     */
+    private static void set(LobbyQuery query, String name, Object value) throws ReflectiveOperationException {
+        Field field = LobbyQuery.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(query, value);
+    }
+
+    /**
+     * Sends the given query through serialization, as RMI does.
+     *
+     * @param query The query that is serialized.
+     * @return The deserialized query.
+     * @throws IOException Thrown when the query can not be serialized.
+     * @throws ClassNotFoundException Thrown when the query can not be
+     * deserialized.
+     */
+    private static LobbyQuery serialize(LobbyQuery query) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(query);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (LobbyQuery) in.readObject();
+        }
+    }
+
+}
@@ -0,0 +1,163 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Properties;
+import nl.soccar.library.SessionData;
+import nl.soccar.mainserver.data.repository.MockStatisticsDataContract;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+import static org.junit.Assert.assertEquals;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the session events of the
+ * nl.soccar.mainserver.rmi.MainServerController class.
+ *
+ * @author PTS34A
+ */
+public class MainServerControllerTest {
+
+    // Declaration of test objects.
+    private MainServerController controller;
+    private IGameServerForMainServer server;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        controller = new MainServerController(new Properties(), null, new MockStatisticsDataContract());
+        server = new MockGameServerForMainServer();
+
+        controller.registerGameServer(server);
+    }
+
+    /**
+     * Stops the controller after every test.
+     */
+    @After
+    public void tearDown() {
+        controller.close();
+    }
+
+    /**
+     * Tests if the events of a batch are applied in order.
+     */
+    @Test
+    public void inOrderTest() {
+        long last = controller.submitSessionEvents(server, Arrays.asList(
+                SessionEvent.created(0, session("Room1")),
+                SessionEvent.hostChanged(1, "Room1", "NewHost"),
+                SessionEvent.created(2, session("Room2"))));
+
+        assertEquals(2, last);
+        assertEquals(2, controller.getSessions().size());
+        assertEquals("NewHost", controller.getSessions().stream().filter(s -> s.getRoomName().equals("Room1")).findFirst().get().getHostName());
+    }
+
+    /**
+     * Tests if events that were applied before are skipped.
+     */
+    @Test
+    public void duplicateTest() {
+        controller.submitSessionEvents(server, Arrays.asList(
+                SessionEvent.created(0, session("Room1")),
+                SessionEvent.created(1, session("Room2"))));
+
+        long last = controller.submitSessionEvents(server, Arrays.asList(
+                SessionEvent.destroyed(1, "Room2"),
+                SessionEvent.created(2, session("Room3"))));
+
+        assertEquals(2, last);
+        assertEquals(3, controller.getSessions().size());
+    }
+
+    /**
+     * Tests if a missing event stops the batch, also when only the first event
+     * of the game server has been applied.
+     */
+    @Test
+    public void gapTest() {
+        assertEquals(0, controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(0, session("Room1")))));
+
+        long last = controller.submitSessionEvents(server, Arrays.asList(
+                SessionEvent.created(2, session("Room2")),
+                SessionEvent.created(3, session("Room3"))));
+
+        assertEquals(0, last);
+        assertEquals(1, controller.getSessions().size());
+    }
+
+    /**
+     * Tests if a game server whose events stopped at a missing event recovers
+     * by synchronizing its sessions.
+     */
+    @Test
+    public void gapRecoveryTest() {
+        controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(0, session("Room1"))));
+        assertEquals(0, controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(2, session("Room2")))));
+
+        controller.synchronizeSessions(server, Arrays.asList(session("Room1"), session("Room2")), 2);
+        long last = controller.submitSessionEvents(server, Arrays.asList(
+                SessionEvent.created(2, session("Room2")),
+                SessionEvent.created(3, session("Room3"))));
+
+        assertEquals(3, last);
+        assertEquals(3, controller.getSessions().size());
+
+        controller.synchronizeSessions(server, Collections.emptyList());
+        assertEquals(5, controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(5, session("Room4")))));
+        assertEquals(1, controller.getSessions().size());
+    }
+
+    /**
+     * Tests if a retry of the first batch is skipped as a whole.
+     */
+    @Test
+    public void firstBatchRetryTest() {
+        assertEquals(0, controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(0, session("Room1")))));
+        controller.sessionDestroyed(server, "Room1");
+
+        assertEquals(0, controller.submitSessionEvents(server, Collections.singletonList(SessionEvent.created(0, session("Room1")))));
+        assertEquals(0, controller.getSessions().size());
+    }
+
+    /**
+     * Tests if a missing batch is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void missingBatchTest() {
+        controller.submitSessionEvents(server, null);
+    }
+
+    /**
+     * Tests if a batch with an event that lacks its data is rejected before
+     * any event is applied.
+     */
+    @Test
+    public void invalidEventTest() {
+        try {
+            controller.submitSessionEvents(server, Arrays.asList(
+                    SessionEvent.created(0, session("Room1")),
+                    SessionEvent.hostChanged(1, "Room1", null)));
+        } catch (IllegalArgumentException e) {
+            assertEquals(0, controller.getSessions().size());
+            return;
+        }
+
+        throw new AssertionError("The batch with an invalid event was not rejected.");
+    }
+
+    /**
+     * Creates the data of a session with the given room name.
+     *
+     * @param roomName The room name of the session.
+     * @return The session data.
+     */
+    private static SessionData session(String roomName) {
+        return new SessionData("127.0.0.1", roomName, "Host", false);
+    }
+
+}
@@ -0,0 +1,124 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * Simulation harness that compares the placement strategies. Bursts of
+ * session creations are replayed against mock game servers whose load is only
+ * reported between bursts, like the periodic ping does. Between bursts a part
+ * of the sessions ends. For every strategy the spread of sessions and players
+ * over the game servers and the largest share of a single burst that landed on
+ * one game server are printed.
+ *
+ * @author PTS34A
+ */
+public class PlacementSimulation {
+
+    private static final String[] STRATEGIES = {"MOST_MEMORY", "LEAST_SESSIONS", "LEAST_PLAYERS", "WEIGHTED_SCORE", "POWER_OF_TWO_CHOICES"};
+
+    private static final int GAME_SERVERS = 8;
+    private static final int BURSTS = 50;
+    private static final int BURST_SIZE = 40;
+    private static final double END_CHANCE = 0.3;
+    private static final int CAPACITY = 8;
+    private static final long SESSION_MEMORY = 50L * 1024 * 1024; // in bytes
+    private static final long SEED = 42;
+
+    /**
+     * Constructor that is intentionally marked private so a
+     * PlacementSimulation object can never be initiated outside this class.
+     */
+    private PlacementSimulation() {
+    }
+
+    /**
+     * Runs the simulation for every strategy.
+     *
+     * @param args Commandline arguments that are not used.
+     */
+    public static void main(String[] args) {
+        for (String strategy : STRATEGIES) {
+            run(strategy);
+        }
+    }
+
+    /**
+     * Replays the creation bursts with the given strategy and prints the
+     * results.
+     *
+     * @param strategy The name of the placement strategy.
+     */
+    private static void run(String strategy) {
+        Random random = new Random(SEED);
+        SessionPlacer placer = new SessionPlacer(PlacementStrategy.forName(strategy), Long.MAX_VALUE);
+
+        List<SimulatedServer> servers = new ArrayList<>();
+        Map<IGameServerForMainServer, SimulatedServer> byStub = new HashMap<>();
+        for (int i = 0; i < GAME_SERVERS; i++) {
+            SimulatedServer server = new SimulatedServer((1 + random.nextInt(4)) * 1024L * 1024 * 1024);
+            servers.add(server);
+            byStub.put(server.stub, server);
+        }
+
+        int roomCounter = 0;
+        int worstBurstShare = 0;
+
+        for (int burst = 0; burst < BURSTS; burst++) {
+            // The loads are reported once per burst, like the ping does.
+            Map<IGameServerForMainServer, GameServerLoad> loads = new HashMap<>();
+            servers.forEach(s -> loads.put(s.stub, s.report()));
+
+            Map<IGameServerForMainServer, Integer> placedInBurst = new HashMap<>();
+            List<String> rooms = new ArrayList<>();
+            for (int i = 0; i < BURST_SIZE; i++) {
+                String room = "room" + roomCounter++;
+                IGameServerForMainServer chosen = placer.reserve(room, loads);
+                placedInBurst.merge(chosen, 1, Integer::sum);
+                byStub.get(chosen).sessions.add(1 + random.nextInt(CAPACITY));
+                rooms.add(room);
+            }
+            rooms.forEach(placer::release);
+
+            worstBurstShare = Math.max(worstBurstShare, placedInBurst.values().stream().mapToInt(Integer::intValue).max().orElse(0));
+            servers.forEach(s -> s.sessions.removeIf(players -> random.nextDouble() < END_CHANCE));
+        }
+
+        int minSessions = servers.stream().mapToInt(s -> s.sessions.size()).min().orElse(0);
+        int maxSessions = servers.stream().mapToInt(s -> s.sessions.size()).max().orElse(0);
+        int minPlayers = servers.stream().mapToInt(SimulatedServer::players).min().orElse(0);
+        int maxPlayers = servers.stream().mapToInt(SimulatedServer::players).max().orElse(0);
+
+        System.out.printf("%-22s sessions per server: %3d-%3d, players per server: %4d-%4d, worst burst share: %2d/%d%n",
+                strategy, minSessions, maxSessions, minPlayers, maxPlayers, worstBurstShare, BURST_SIZE);
+    }
+
+    /**
+     * A mock game server with a fixed amount of memory of which every session
+     * uses a part.
+     */
+    private static final class SimulatedServer {
+
+        private final IGameServerForMainServer stub = new MockGameServerForMainServer();
+        private final long memory;
+        private final List<Integer> sessions = new ArrayList<>();
+
+        private SimulatedServer(long memory) {
+            this.memory = memory;
+        }
+
+        private int players() {
+            return sessions.stream().mapToInt(Integer::intValue).sum();
+        }
+
+        private GameServerLoad report() {
+            return new GameServerLoad(memory - sessions.size() * SESSION_MEMORY, sessions.size(), players(), System.currentTimeMillis());
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.HashMap;
+import java.util.Map;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.SessionPlacer class.
+ *
+ * @author PTS34A
+ */
+public class SessionPlacerTest {
+
+    // Declaration of test objects.
+    private SessionPlacer placer;
+    private IGameServerForMainServer server1;
+    private IGameServerForMainServer server2;
+    private Map<IGameServerForMainServer, GameServerLoad> loads;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        placer = new SessionPlacer(PlacementStrategy.forName("LEAST_SESSIONS"), 60000);
+        server1 = new MockGameServerForMainServer();
+        server2 = new MockGameServerForMainServer();
+
+        loads = new HashMap<>();
+        loads.put(server1, new GameServerLoad(1000, 0, 0, 0));
+        loads.put(server2, new GameServerLoad(500, 0, 0, 0));
+    }
+
+    /**
+     * Tests if sessions that are placed but not created yet are counted.
+     */
+    @Test
+    public void reservationTest() {
+        IGameServerForMainServer first = placer.reserve("Room1", loads);
+        IGameServerForMainServer second = placer.reserve("Room2", loads);
+
+        assertSame(server1, first);
+        assertNotSame(first, second);
+    }
+
+    /**
+     * Tests if a room name can not be reserved twice.
+     */
+    @Test
+    public void duplicateRoomNameTest() {
+        placer.reserve("Room", loads);
+        assertNull(placer.reserve("Room", loads));
+
+        placer.release("Room");
+        assertSame(server1, placer.reserve("Room", loads));
+    }
+
+}
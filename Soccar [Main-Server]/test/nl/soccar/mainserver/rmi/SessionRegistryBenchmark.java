@@ -0,0 +1,137 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import nl.soccar.library.SessionData;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+
+/**
+ * Benchmark that measures contention on the SessionRegistry. Every game server
+ * thread sends occupancy and host events for its own rooms while lobby threads
+ * keep listing all sessions. The benchmark runs once against the registry as
+ * it is and once with every call behind a single global lock, which is how the
+ * sessions were guarded before, and prints the throughput of both runs.
+ *
+ * @author PTS34A
+ */
+public class SessionRegistryBenchmark {
+
+    private static final int GAME_SERVERS = 8;
+    private static final int ROOMS_PER_SERVER = 250;
+    private static final int LOBBY_THREADS = 2;
+    private static final long DURATION = 3000; // in milliseconds
+
+    /**
+     * Constructor that is intentionally marked private so a
+     * SessionRegistryBenchmark object can never be initiated outside this
+     * class.
+     */
+    private SessionRegistryBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark with and without a global lock.
+     *
+     * @param args Commandline arguments that are not used.
+     * @throws InterruptedException Thrown when the benchmark is interrupted.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        run("global lock", true);
+        run("lock-free", false);
+    }
+
+    /**
+     * Runs the game server and lobby threads for a fixed duration and prints
+     * the amount of events and listings that were processed.
+     *
+     * @param name The name of the run.
+     * @param globalLock True if every registry call must hold a single lock.
+     * @throws InterruptedException Thrown when the benchmark is interrupted.
+     */
+    private static void run(String name, boolean globalLock) throws InterruptedException {
+        SessionRegistry registry = new SessionRegistry();
+        Object lock = new Object();
+
+        List<IGameServerForMainServer> servers = new ArrayList<>();
+        for (int i = 0; i < GAME_SERVERS; i++) {
+            IGameServerForMainServer server = new MockGameServerForMainServer();
+            registry.addServer(server);
+            for (int j = 0; j < ROOMS_PER_SERVER; j++) {
+                registry.add(server, new SessionData("127.0.0.1", room(i, j), "host", false));
+            }
+            servers.add(server);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong events = new AtomicLong();
+        AtomicLong listings = new AtomicLong();
+        CountDownLatch finished = new CountDownLatch(GAME_SERVERS + LOBBY_THREADS);
+
+        for (int i = 0; i < GAME_SERVERS; i++) {
+            int index = i;
+            IGameServerForMainServer server = servers.get(i);
+            new Thread(() -> {
+                long count = 0;
+                while (running.get()) {
+                    String room = room(index, (int) (count % ROOMS_PER_SERVER));
+                    Runnable event = () -> {
+                        registry.increaseOccupancy(server, room);
+                        registry.decreaseOccupancy(server, room);
+                        registry.changeHost(server, room, "host");
+                    };
+
+                    if (globalLock) {
+                        synchronized (lock) {
+                            event.run();
+                        }
+                    } else {
+                        event.run();
+                    }
+                    count++;
+                }
+                events.addAndGet(count);
+                finished.countDown();
+            }).start();
+        }
+
+        for (int i = 0; i < LOBBY_THREADS; i++) {
+            new Thread(() -> {
+                long count = 0;
+                while (running.get()) {
+                    if (globalLock) {
+                        synchronized (lock) {
+                            registry.getAllSessions();
+                        }
+                    } else {
+                        registry.getAllSessions();
+                    }
+                    count++;
+                }
+                listings.addAndGet(count);
+                finished.countDown();
+            }).start();
+        }
+
+        Thread.sleep(DURATION);
+        running.set(false);
+        finished.await();
+
+        System.out.printf("%-12s events: %,d/s, lobby listings: %,d/s%n",
+                name, events.get() * 1000 / DURATION, listings.get() * 1000 / DURATION);
+    }
+
+    /**
+     * Gets the room name of a room on a game server.
+     *
+     * @param server The index of the game server.
+     * @param room The index of the room on the game server.
+     * @return The room name.
+     */
+    private static String room(int server, int room) {
+        return String.format("server%d-room%d", server, room);
+    }
+
+}
@@ -0,0 +1,237 @@
+package nl.soccar.mainserver.rmi;
+
+import java.util.Arrays;
+import java.util.Collections;
+import nl.soccar.library.SessionData;
+import nl.soccar.rmi.interfaces.IGameServerForMainServer;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.rmi.SessionRegistry class.
+ *
+ * @author PTS34A
+ */
+public class SessionRegistryTest {
+
+    // Declaration of test objects.
+    private SessionRegistry registry;
+    private IGameServerForMainServer server1;
+    private IGameServerForMainServer server2;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        registry = new SessionRegistry();
+        server1 = new MockGameServerForMainServer();
+        server2 = new MockGameServerForMainServer();
+
+        registry.addServer(server1);
+        registry.addServer(server2);
+    }
+
+    /**
+     * Tests if sessions can be found by game server and room name.
+     */
+    @Test
+    public void addAndGetTest() {
+        SessionData session = new SessionData("127.0.0.1", "Room", "Host", false);
+
+        assertTrue(registry.add(server1, session));
+        assertSame(session, registry.get(server1, "Room"));
+        assertNull(registry.get(server2, "Room"));
+        assertTrue(registry.containsRoomName("Room"));
+    }
+
+    /**
+     * Tests if a room name can only be used by a single game server.
+     */
+    @Test
+    public void uniqueRoomNameTest() {
+        assertTrue(registry.add(server1, new SessionData("127.0.0.1", "Room", "Host", false)));
+        assertFalse(registry.add(server2, new SessionData("127.0.0.1", "Room", "Host", false)));
+        assertFalse(registry.add(new MockGameServerForMainServer(), new SessionData("127.0.0.1", "Other", "Host", false)));
+        assertEquals(1, registry.getAllSessions().size());
+    }
+
+    /**
+     * Tests if removing a game server removes all of its sessions.
+     */
+    @Test
+    public void removeServerTest() {
+        registry.add(server1, new SessionData("127.0.0.1", "Room1", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Room2", "Host", false));
+        registry.add(server2, new SessionData("127.0.0.1", "Room3", "Host", false));
+
+        assertEquals(2, registry.removeServer(server1).size());
+        assertFalse(registry.containsRoomName("Room1"));
+        assertEquals(1, registry.getAllSessions().size());
+
+        assertNull(registry.remove(server2, "Room1"));
+        assertTrue(registry.remove(server2, "Room3") != null);
+        assertEquals(0, registry.getSessionCount(server2));
+    }
+
+    /**
+     * Tests if the occupancy of a session can not become negative and is only
+     * changed for sessions of the given game server.
+     */
+    @Test
+    public void occupancyTest() {
+        SessionData session = new SessionData("127.0.0.1", "Room", "Host", false);
+        registry.add(server1, session);
+
+        assertFalse(registry.decreaseOccupancy(server1, "Room"));
+        assertFalse(registry.increaseOccupancy(server2, "Room"));
+        assertEquals(0, session.getOccupation());
+    }
+
+    /**
+     * Tests if the host of a session is changed.
+     */
+    @Test
+    public void changeHostTest() {
+        SessionData session = new SessionData("127.0.0.1", "Room", "Host", false);
+        registry.add(server1, session);
+
+        assertTrue(registry.changeHost(server1, "Room", "NewHost"));
+        assertFalse(registry.changeHost(server2, "Room", "Other"));
+        assertEquals("NewHost", registry.get(server1, "Room").getHostName());
+    }
+
+    /**
+     * Tests if a change of a session does not change the sessions of a
+     * snapshot that was built before the change.
+     */
+    @Test
+    public void snapshotIsolationTest() {
+        registry.add(server1, new SessionData("127.0.0.1", "Room", "Host", false));
+        LobbySnapshot before = registry.getSnapshot();
+
+        registry.changeHost(server1, "Room", "NewHost");
+        LobbySnapshot after = registry.getSnapshot();
+
+        assertEquals("Host", before.getSessions().get(0).getHostName());
+        assertEquals("NewHost", after.getSessions().get(0).getHostName());
+        assertEquals("127.0.0.1", after.getSessions().get(0).getAddress());
+    }
+
+    /**
+     * Tests if the lobby snapshot is only rebuilt after a change.
+     */
+    @Test
+    public void snapshotTest() {
+        LobbySnapshot empty = registry.getSnapshot();
+        assertSame(empty, registry.getSnapshot());
+
+        registry.add(server1, new SessionData("127.0.0.1", "Room", "Host", false));
+        LobbySnapshot snapshot = registry.getSnapshot();
+
+        assertNotSame(empty, snapshot);
+        assertSame(snapshot, registry.getSnapshot());
+        assertEquals(registry.getVersion(), snapshot.getVersion());
+        assertEquals(1, snapshot.getSessions().size());
+        assertEquals(0, empty.getSessions().size());
+    }
+
+    /**
+     * Tests if only the sessions that changed since a version are returned.
+     */
+    @Test
+    public void changesTest() {
+        registry.add(server1, new SessionData("127.0.0.1", "Room1", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Room2", "Host", false));
+        long version = registry.getVersion();
+
+        assertTrue(registry.getChanges(version).isUnchanged());
+
+        registry.add(server2, new SessionData("127.0.0.1", "Room3", "Host", false));
+        registry.changeHost(server1, "Room1", "NewHost");
+        registry.remove(server1, "Room2");
+
+        LobbyDelta delta = registry.getChanges(version);
+        assertFalse(delta.isFullResync());
+        assertEquals(registry.getVersion(), delta.getVersion());
+        assertEquals("Room3", delta.getAdded().get(0).getRoomName());
+        assertEquals("Room1", delta.getModified().get(0).getRoomName());
+        assertEquals("Room2", delta.getRemoved().get(0));
+    }
+
+    /**
+     * Tests if a full resync is returned when the version is no longer in the
+     * change log.
+     */
+    @Test
+    public void fullResyncTest() {
+        registry = new SessionRegistry(2);
+        registry.addServer(server1);
+        registry.add(server1, new SessionData("127.0.0.1", "Room1", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Room2", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Room3", "Host", false));
+
+        assertTrue(registry.getChanges(-1).isFullResync());
+        assertTrue(registry.getChanges(0).isFullResync());
+        assertFalse(registry.getChanges(1).isFullResync());
+        assertEquals(3, registry.getChanges(-1).getAdded().size());
+    }
+
+    /**
+     * Tests if synchronizing a game server adds, replaces and removes its
+     * sessions to match the reported sessions.
+     */
+    @Test
+    public void synchronizeTest() {
+        registry.add(server1, new SessionData("127.0.0.1", "Kept", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Changed", "Host", false));
+        registry.add(server1, new SessionData("127.0.0.1", "Gone", "Host", false));
+        registry.add(server2, new SessionData("127.0.0.1", "Taken", "Host", false));
+
+        int changes = registry.synchronize(server1, Arrays.asList(
+                new SessionData("127.0.0.1", "Kept", "Host", false),
+                new SessionData("127.0.0.1", "Changed", "NewHost", false),
+                new SessionData("127.0.0.1", "New", "Host", false),
+                new SessionData("127.0.0.1", "Taken", "Host", false)));
+
+        assertEquals(3, changes);
+        assertEquals(3, registry.getSessionCount(server1));
+        assertEquals("NewHost", registry.get(server1, "Changed").getHostName());
+        assertNull(registry.get(server1, "Gone"));
+        assertNull(registry.get(server1, "Taken"));
+
+        assertEquals(0, registry.synchronize(server1, Arrays.asList(
+                new SessionData("127.0.0.1", "Kept", "Host", false),
+                new SessionData("127.0.0.1", "Changed", "NewHost", false),
+                new SessionData("127.0.0.1", "New", "Host", false))));
+    }
+
+    /**
+     * Tests if the digest of a game server matches the digest of the sessions
+     * it hosts, regardless of their order.
+     */
+    @Test
+    public void digestTest() {
+        SessionData session1 = new SessionData("127.0.0.1", "Room1", "Host", false);
+        SessionData session2 = new SessionData("127.0.0.1", "Room2", "Host", true);
+        registry.add(server1, session1);
+        registry.add(server1, session2);
+
+        assertEquals(SessionRegistry.digest(Arrays.asList(session2, session1)), registry.getDigest(server1));
+        assertEquals(SessionRegistry.digest(Collections.emptyList()), registry.getDigest(server2));
+
+        registry.changeHost(server1, "Room1", "NewHost");
+        assertFalse(SessionRegistry.digest(Arrays.asList(session1, session2)) == registry.getDigest(server1));
+
+        session1.setHostName("NewHost");
+        assertEquals(SessionRegistry.digest(Arrays.asList(session1, session2)), registry.getDigest(server1));
+        assertFalse(SessionRegistry.digest(Collections.singletonList(session1)) == registry.getDigest(server1));
+    }
+
+}
@@ -0,0 +1,97 @@
+package nl.soccar.mainserver.util.test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import nl.soccar.mainserver.util.BoundedThreadPool;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.util.BoundedThreadPool class.
+ *
+ * @author PTS34A
+ */
+public class BoundedThreadPoolTest {
+
+    private static final int POOL_SIZE = 1;
+    private static final int QUEUE_CAPACITY = 1;
+
+    // Declaration of test objects.
+    private BoundedThreadPool pool;
+    private CountDownLatch latch;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        pool = new BoundedThreadPool("TestPool", POOL_SIZE, QUEUE_CAPACITY);
+        latch = new CountDownLatch(1);
+    }
+
+    /**
+     * Releases the blocked tasks and shuts the pool down.
+     */
+    @After
+    public void tearDown() {
+        latch.countDown();
+        pool.shutdown();
+    }
+
+    /**
+     * Tests if a task is rejected once all threads are busy and the queue is
+     * full.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void rejectionTest() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        pool.execute(() -> {
+            started.countDown();
+            awaitLatch();
+        });
+        started.await();
+        pool.execute(this::awaitLatch);
+        assertEquals(1, pool.getQueueDepth());
+
+        try {
+            pool.execute(this::awaitLatch);
+            throw new AssertionError("The third task should have been rejected.");
+        } catch (RejectedExecutionException e) {
+            assertEquals(1, pool.getRejectedCount());
+        }
+    }
+
+    /**
+     * Tests if completed tasks are counted in the latency statistics.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void latencyTest() throws InterruptedException {
+        latch.countDown();
+        pool.execute(() -> {
+        });
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, pool.getCompletedTaskCount());
+        assertTrue(pool.getAverageExecutionTime() >= 0);
+    }
+
+    /**
+     * Blocks until the latch is released.
+     */
+    private void awaitLatch() {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+package nl.soccar.mainserver.util.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import nl.soccar.mainserver.util.LoadingCache;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.util.LoadingCache class.
+ *
+ * @author PTS34A
+ */
+public class LoadingCacheTest {
+
+    private static final int MAX_SIZE = 2;
+    private static final long TIME_TO_LIVE = 60000; // in milliseconds
+
+    // Declaration of test objects.
+    private LoadingCache<String, String> cache;
+    private AtomicInteger loads;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        cache = new LoadingCache<>(MAX_SIZE, TIME_TO_LIVE);
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Tests if a loaded value is served from the cache afterwards.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     * @throws ExecutionException Thrown when the load fails.
+     */
+    @Test
+    public void hitTest() throws InterruptedException, ExecutionException {
+        assertEquals("value", cache.get("key", this::load).get());
+        assertEquals("value", cache.get("key", this::load).get());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    /**
+     * Tests if concurrent requests for the same missing key share one load.
+     */
+    @Test
+    public void singleFlightTest() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = cache.get("key", k -> {
+            loads.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> second = cache.get("key", this::load);
+        assertSame(first, second);
+
+        pending.complete("value");
+        assertEquals(1, loads.get());
+        assertEquals("value", cache.getIfPresent("key"));
+    }
+
+    /**
+     * Tests if a load that is running during an invalidation is not cached.
+     */
+    @Test
+    public void invalidateTest() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        cache.get("key", k -> pending);
+        cache.invalidate("key");
+        pending.complete("stale");
+        assertNull(cache.getIfPresent("key"));
+    }
+
+    /**
+     * Tests if a cached value is updated in place and a missing value is not
+     * created.
+     */
+    @Test
+    public void computeIfPresentTest() {
+        cache.put("key", "value");
+        assertTrue(cache.computeIfPresent("key", v -> v + "!"));
+        assertEquals("value!", cache.getIfPresent("key"));
+        assertFalse(cache.computeIfPresent("missing", v -> v + "!"));
+        assertNull(cache.getIfPresent("missing"));
+
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        cache.get("loading", k -> pending);
+        cache.computeIfPresent("loading", v -> v + "!");
+        pending.complete("stale");
+        assertNull(cache.getIfPresent("loading"));
+    }
+
+    /**
+     * Tests if the least recently used value is evicted when the cache is
+     * full.
+     */
+    @Test
+    public void evictionTest() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.getIfPresent("a");
+        cache.put("c", "3");
+        assertEquals(MAX_SIZE, cache.size());
+        assertNull(cache.getIfPresent("b"));
+        assertEquals("1", cache.getIfPresent("a"));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    /**
+     * Tests if a large cache evicts its least recently used values in one pass
+     * and keeps the values that were used recently.
+     */
+    @Test
+    public void evictionHeadroomTest() {
+        LoadingCache<String, String> large = new LoadingCache<>(100, TIME_TO_LIVE);
+        for (int i = 0; i < 100; i++) {
+            large.put("key" + i, "value");
+        }
+
+        large.getIfPresent("key0");
+        large.put("key100", "value");
+        assertEquals(95, large.size());
+        assertEquals(6, large.getEvictionCount());
+        assertEquals("value", large.getIfPresent("key0"));
+        assertNull(large.getIfPresent("key1"));
+
+        for (int i = 101; i < 106; i++) {
+            large.put("key" + i, "value");
+        }
+        assertEquals(6, large.getEvictionCount());
+    }
+
+    /**
+     * Tests if an expired value is no longer served.
+     *
+     * @throws InterruptedException Thrown when the test is interrupted.
+     */
+    @Test
+    public void expiryTest() throws InterruptedException {
+        LoadingCache<String, String> shortLived = new LoadingCache<>(MAX_SIZE, 1);
+        shortLived.put("key", "value");
+        Thread.sleep(10);
+        assertNull(shortLived.getIfPresent("key"));
+    }
+
+    /**
+     * Loads the value of a key and counts the amount of loads.
+     *
+     * @param key The key that is loaded.
+     * @return A completed future with the value.
+     */
+    private CompletableFuture<String> load(String key) {
+        loads.incrementAndGet();
+        return CompletableFuture.completedFuture("value");
+    }
+
+}
@@ -0,0 +1,79 @@
+package nl.soccar.mainserver.util.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import nl.soccar.mainserver.util.RankedSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * JUnit test that tests the nl.soccar.mainserver.util.RankedSet class.
+ *
+ * @author PTS34A
+ */
+public class RankedSetTest {
+
+    // Declaration of test objects.
+    private RankedSet<Integer> set;
+
+    /**
+     * Instantiation of test objects.
+     */
+    @Before
+    public void setUp() {
+        set = new RankedSet<>(Comparator.naturalOrder());
+    }
+
+    /**
+     * Tests if elements can be found by rank and ranks can be found by
+     * element.
+     */
+    @Test
+    public void rankTest() {
+        assertTrue(set.add(30));
+        assertTrue(set.add(10));
+        assertTrue(set.add(20));
+        assertFalse(set.add(20));
+
+        assertEquals(3, set.size());
+        assertEquals(0, set.rank(10));
+        assertEquals(2, set.rank(30));
+        assertEquals(-1, set.rank(40));
+        assertEquals(Integer.valueOf(20), set.get(1));
+        assertEquals(Arrays.asList(20, 30), set.range(1, 5));
+    }
+
+    /**
+     * Tests if the set stays ordered after many random additions and removals.
+     */
+    @Test
+    public void randomTest() {
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            int value = random.nextInt(1000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertEquals(new ArrayList<>(expected), set.range(0, set.size()));
+
+        List<Integer> values = new ArrayList<>(expected);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, set.rank(values.get(i)));
+        }
+    }
+
+}